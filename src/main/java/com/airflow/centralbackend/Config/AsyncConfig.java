@@ -0,0 +1,59 @@
+package com.airflow.centralbackend.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // Same switch Spring Boot uses for Tomcat request threads, so request handling
+    // and the outbound client layer move to virtual threads together.
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${airflow.outbound.core-pool-size:16}")
+    private int corePoolSize;
+
+    @Value("${airflow.outbound.max-pool-size:64}")
+    private int maxPoolSize;
+
+    @Value("${airflow.outbound.queue-capacity:500}")
+    private int queueCapacity;
+
+    // Upper bound on in-flight outbound calls when running on virtual threads.
+    @Value("${airflow.outbound.virtual-concurrency-limit:2000}")
+    private int virtualConcurrencyLimit;
+
+    /**
+     * Executor for blocking calls to the mock APIs and Google, so a request can
+     * fan out several upstream calls instead of running them back to back.
+     * With virtual threads enabled every call gets its own virtual thread, up to
+     * the concurrency limit; otherwise a bounded platform pool where the calling
+     * thread runs the task itself when saturated.
+     */
+    @Bean(name = "outboundExecutor")
+    public AsyncTaskExecutor outboundExecutor() {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("outbound-vt-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setTaskTerminationTimeout(10_000);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("outbound-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
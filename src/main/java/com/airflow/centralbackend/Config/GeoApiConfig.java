@@ -0,0 +1,61 @@
+package com.airflow.centralbackend.Config;
+
+import com.google.maps.GeoApiContext;
+import com.google.maps.OkHttpRequestHandler;
+import okhttp3.ConnectionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class GeoApiConfig {
+
+    @Value("${api.key}")
+    private String googleMapsApiKey;
+
+    @Value("${airflow.google.query-rate-limit:20}")
+    private int queryRateLimit;
+
+    @Value("${airflow.google.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${airflow.google.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${airflow.google.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${airflow.google.max-idle-connections:10}")
+    private int maxIdleConnections;
+
+    @Value("${airflow.google.keep-alive-seconds:300}")
+    private long keepAliveSeconds;
+
+    // Empty means Google; overridable so tests and local runs can point at a stub upstream.
+    @Value("${airflow.google.base-url:}")
+    private String baseUrl;
+
+    /**
+     * Single Directions API context for the whole application. Each context owns
+     * an OkHttp client, dispatcher threads and a connection pool, so building one
+     * per request leaks threads and pays a TLS handshake on every call.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public GeoApiContext geoApiContext() {
+        OkHttpRequestHandler.Builder requestHandler = new OkHttpRequestHandler.Builder();
+        requestHandler.okHttpClientBuilder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS));
+        GeoApiContext.Builder context = new GeoApiContext.Builder(requestHandler)
+                .apiKey(googleMapsApiKey)
+                .queryRateLimit(queryRateLimit)
+                .connectTimeout(connectTimeoutMs, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMs, TimeUnit.MILLISECONDS)
+                .maxRetries(maxRetries);
+        if (!baseUrl.isEmpty()) {
+            context.baseUrlOverride(baseUrl);
+        }
+        return context.build();
+    }
+}
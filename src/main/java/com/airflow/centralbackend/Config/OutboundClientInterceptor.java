@@ -0,0 +1,126 @@
+package com.airflow.centralbackend.Config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.PushbackInputStream;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Applied to every outbound RestTemplate call:
+ * - caps in-flight requests per host so one slow upstream can't take every connection,
+ * - asks for gzip and transparently decompresses the response body.
+ */
+public class OutboundClientInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxConcurrentPerHost;
+    private final Duration acquireTimeout;
+    private final ConcurrentHashMap<String, Semaphore> hostPermits = new ConcurrentHashMap<>();
+
+    public OutboundClientInterceptor(int maxConcurrentPerHost, Duration acquireTimeout) {
+        this.maxConcurrentPerHost = maxConcurrentPerHost;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        String host = request.getURI().getHost();
+        Semaphore permits = hostPermits.computeIfAbsent(host, h -> new Semaphore(maxConcurrentPerHost, true));
+        try {
+            if (!permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new IOException("Too many concurrent requests to " + host);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a connection to " + host);
+        }
+        try {
+            return new OutboundResponse(execution.execute(request, body), permits);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    // Releases the host permit once the body has been consumed and closed.
+    private static final class OutboundResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore permits;
+        private final boolean gzipped;
+        private InputStream body;
+        private boolean closed;
+
+        private OutboundResponse(ClientHttpResponse delegate, Semaphore permits) {
+            this.delegate = delegate;
+            this.permits = permits;
+            this.gzipped = "gzip".equalsIgnoreCase(delegate.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            if (!gzipped) {
+                return delegate.getHeaders();
+            }
+            HttpHeaders headers = new HttpHeaders();
+            headers.addAll(delegate.getHeaders());
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = gzipped ? gunzip(delegate.getBody()) : delegate.getBody();
+            }
+            return body;
+        }
+
+        // 204s and HEADs can carry Content-Encoding: gzip with no body, which GZIPInputStream rejects.
+        private static InputStream gunzip(InputStream raw) throws IOException {
+            PushbackInputStream in = new PushbackInputStream(raw, 1);
+            int first = in.read();
+            if (first == -1) {
+                return in;
+            }
+            in.unread(first);
+            return new GZIPInputStream(in);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                delegate.close();
+            } finally {
+                permits.release();
+            }
+        }
+    }
+}
@@ -1,13 +1,47 @@
 package com.airflow.centralbackend.Config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class RestTemplateConfig {
+
+    @Value("${airflow.http.connect-timeout-ms:3000}")
+    private long connectTimeoutMs;
+
+    @Value("${airflow.http.read-timeout-ms:10000}")
+    private long readTimeoutMs;
+
+    @Value("${airflow.http.max-concurrent-per-host:50}")
+    private int maxConcurrentPerHost;
+
+    /**
+     * One JDK HttpClient for every upstream (mock APIs, routes API, Google Routes).
+     * It keeps connections alive in its own pool and negotiates HTTP/2 over ALPN
+     * where the server supports it, so repeat calls skip the TLS handshake.
+     */
+    @Bean
+    public HttpClient outboundHttpClient() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(HttpClient outboundHttpClient) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(outboundHttpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(
+                new OutboundClientInterceptor(maxConcurrentPerHost, Duration.ofMillis(readTimeoutMs)));
+        return restTemplate;
     }
 }
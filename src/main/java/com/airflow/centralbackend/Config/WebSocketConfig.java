@@ -0,0 +1,84 @@
+package com.airflow.centralbackend.Config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
+import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
+import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
+import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+/**
+ * STOMP over WebSocket for the per-assignment DALI stream.
+ *
+ * Clients connect to /ws/airFlow, send positions to
+ * /app/assignments/{assignmentId}/position and subscribe to
+ * /topic/assignments/{assignmentId}/advice.
+ *
+ * Slow consumers are handled at two levels. Each session's sends are wrapped by
+ * Spring's ConcurrentWebSocketSessionDecorator: if one send blocks longer than
+ * send-time-limit-ms, or more than send-buffer-size-limit bytes queue up for
+ * the session (about 500 advice messages at the default), the session is
+ * closed and the client has to reconnect. Across sessions, the outbound channel
+ * queue holds at most outbound-queue-capacity messages; past that, advice is
+ * dropped (see DaliStreamService).
+ */
+@Configuration
+@EnableWebSocketMessageBroker
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+
+    // A session that can't take a message within this time, or lets this many
+    // bytes pile up unsent, is treated as a slow consumer and closed.
+    @Value("${airflow.ws.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+
+    @Value("${airflow.ws.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${airflow.ws.message-size-limit:16384}")
+    private int messageSizeLimit;
+
+    @Value("${airflow.ws.inbound-pool-size:8}")
+    private int inboundPoolSize;
+
+    @Value("${airflow.ws.outbound-pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${airflow.ws.outbound-queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    // Browser origins allowed to open the socket; empty means same-origin only.
+    // Native clients that send no Origin header are not affected.
+    @Value("${airflow.ws.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.addEndpoint("/ws/airFlow").setAllowedOriginPatterns(allowedOrigins);
+    }
+
+    @Override
+    public void configureMessageBroker(MessageBrokerRegistry registry) {
+        registry.enableSimpleBroker("/topic");
+        registry.setApplicationDestinationPrefixes("/app");
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(inboundPoolSize).maxPoolSize(inboundPoolSize);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor().corePoolSize(outboundPoolSize).maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+    }
+}
@@ -0,0 +1,28 @@
+package com.airflow.centralbackend.Controller;
+
+import com.airflow.centralbackend.Services.DaliStreamService;
+import com.airflow.centralbackend.dto.PositionUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP counterpart of PUT /api/airFlow/updateDali.
+ *
+ * SEND    /app/assignments/{assignmentId}/position  { "latitude":..., "longitude":..., "priority":"High" }
+ * SUBSCRIBE /topic/assignments/{assignmentId}/advice
+ */
+@Controller
+public class DaliStreamController {
+
+    @Autowired
+    private DaliStreamService daliStreamService;
+
+    @MessageMapping("/assignments/{assignmentId}/position")
+    public void position(@DestinationVariable String assignmentId, PositionUpdate update,
+                         @Header("simpSessionId") String sessionId) {
+        daliStreamService.onPosition(sessionId, assignmentId, update);
+    }
+}
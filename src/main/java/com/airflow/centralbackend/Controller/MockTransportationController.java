@@ -14,14 +14,14 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 
 import java.net.URI;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/mock")
 public class MockTransportationController {
 
-    private static final String BASE = "https://transportation-mock-api.onrender.com";
+    // Overridable so tests and local runs can point at a stub upstream.
+    @Value("${mock.api.base-url:https://transportation-mock-api.onrender.com}")
+    private String baseUrl;
 
     @Autowired
     private RestTemplate restTemplate;
@@ -29,14 +29,12 @@ public class MockTransportationController {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private final Map<String, String> flightInfoCache = new ConcurrentHashMap<>();
-
     // 1) GET /api/mock/manifests
     @GetMapping("/manifests")
     public ManifestsResponse getManifests(@RequestHeader("x-token") String token) {
         HttpEntity<Void> entity = new HttpEntity<>(createHeaders(token));
         ResponseEntity<ManifestsResponse> resp = restTemplate.exchange(
-                BASE + "/mock/logistics/get_manifests",
+                baseUrl + "/mock/logistics/get_manifests",
                 HttpMethod.GET,
                 entity,
                 ManifestsResponse.class
@@ -53,7 +51,7 @@ public class MockTransportationController {
         String encodedJson = URLEncoder.encode(manifestsJson, StandardCharsets.UTF_8);
 
         URI uri = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/dispatch/assign_tasks")
+                .fromHttpUrl(baseUrl + "/mock/dispatch/assign_tasks")
                 .queryParam("manifests_json", encodedJson)
                 .build(true)   // <<-- true == “values are already encoded”
                 .toUri();
@@ -72,7 +70,7 @@ public class MockTransportationController {
             @RequestParam(required = false) String routeJson
     ) {
         UriComponentsBuilder b = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/osm/get_intersections")
+                .fromHttpUrl(baseUrl + "/mock/osm/get_intersections")
                 .queryParam("start_lat", startLat)
                 .queryParam("start_lon", startLon);
         if (routeJson != null) {
@@ -94,7 +92,7 @@ public class MockTransportationController {
             @RequestParam String priority
     ) {
         URI uri = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/dali/intersection")
+                .fromHttpUrl(baseUrl + "/mock/dali/intersection")
                 .queryParam("trucker_id", truckerId)
                 .queryParam("lat", lat)
                 .queryParam("lon", lon)
@@ -118,7 +116,7 @@ public class MockTransportationController {
             @RequestParam("flight_number") String flightNumber
     ) {
         URI uri = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/air/flightinfo")
+                .fromHttpUrl(baseUrl + "/mock/air/flightinfo")
                 .queryParam("flight_number", flightNumber)
                 .encode()
                 .build()
@@ -136,7 +134,7 @@ public class MockTransportationController {
             @RequestHeader("x-token") String token
     ) {
         URI uri = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/air/reserveparking")
+                .fromHttpUrl(baseUrl + "/mock/air/reserveparking")
                 .build()
                 .toUri();
 
@@ -150,13 +148,16 @@ public class MockTransportationController {
     @GetMapping("/reservedock")
     public DockResponse reserveDock(
             @RequestHeader("x-token") String token,
-            @RequestParam("terminal") String terminal
+            @RequestParam("terminal") String terminal,
+            @RequestParam(value = "dock_id", required = false) String dockId
     ) {
-        URI uri = UriComponentsBuilder
-                .fromHttpUrl(BASE + "/mock/air/reservedock")
-                .queryParam("terminal", terminal)
-                .build(true)
-                .toUri();
+        UriComponentsBuilder builder = UriComponentsBuilder
+                .fromHttpUrl(baseUrl + "/mock/air/reservedock")
+                .queryParam("terminal", terminal);
+        if (dockId != null) {
+            builder.queryParam("dock_id", dockId);
+        }
+        URI uri = builder.build(true).toUri();
 
         HttpEntity<Void> entity = new HttpEntity<>(createHeaders(token));
         ResponseEntity<DockResponse> resp = restTemplate.exchange(
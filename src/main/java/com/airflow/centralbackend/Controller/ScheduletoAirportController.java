@@ -1,17 +1,37 @@
 package com.airflow.centralbackend.Controller;
 
 import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.ParkingSlot;
 import com.airflow.centralbackend.Model.Trip;
+import com.airflow.centralbackend.Services.AssignmentDispatchService;
 import com.airflow.centralbackend.Services.AssignmentSchedulerService;
+import com.airflow.centralbackend.Services.AssignmentStore;
+import com.airflow.centralbackend.Services.DaliAdviceService;
+import com.airflow.centralbackend.Services.DeparturePlannerService;
+import com.airflow.centralbackend.Services.DockSchedulerService;
+import com.airflow.centralbackend.Services.FleetStateService;
+import com.airflow.centralbackend.Services.FlightInfoCacheService;
+import com.airflow.centralbackend.Services.IntersectionCacheService;
+import com.airflow.centralbackend.Services.MockAirportClient;
+import com.airflow.centralbackend.Services.ReferenceDataCache;
+import com.airflow.centralbackend.Services.ReservationService;
+import com.airflow.centralbackend.Services.RouteCacheService;
 import com.airflow.centralbackend.Services.ScheduletoAirportServices;
+import com.airflow.centralbackend.Services.TelemetryLogService;
 import com.airflow.centralbackend.dto.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -43,6 +63,45 @@ public class ScheduletoAirportController {
     @Autowired
     private AssignmentSchedulerService schedulerService;
 
+    @Autowired
+    private AssignmentDispatchService assignmentDispatchService;
+
+    @Autowired
+    private RouteCacheService routeCacheService;
+
+    @Autowired
+    private DaliAdviceService daliAdviceService;
+
+    @Autowired
+    private IntersectionCacheService intersectionCacheService;
+
+    @Autowired
+    private FlightInfoCacheService flightInfoCacheService;
+
+    @Autowired
+    private DeparturePlannerService departurePlannerService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    @Autowired
+    private DockSchedulerService dockSchedulerService;
+
+    @Autowired
+    private MockAirportClient mockAirportClient;
+
+    @Autowired
+    private TelemetryLogService telemetryLogService;
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private FleetStateService fleetStateService;
+
+    @Value("${airflow.dali.max-batch-size:50}")
+    private int maxDaliBatchSize;
+
 
     /**
      * Fetch and assign tasks, then return only tasks for the specified driver.
@@ -63,8 +122,7 @@ public class ScheduletoAirportController {
             @RequestParam String CurrLat,
             @RequestParam String currLon
     ) throws Exception {
-        Map<String,Assignment> assignMap = schedulerService.getCachedAssignmentsMap();
-        Assignment currAssignment = assignMap.get(assignmentId);
+        Assignment currAssignment = requireAssignment(assignmentId);
         String flightNumber = currAssignment.getFlight_number();
         TimeDetails info = schedulerService.getFlightInfo(token, flightNumber,assignmentId, CurrLat,currLon, assignmentId);
         return info;
@@ -76,28 +134,27 @@ public class ScheduletoAirportController {
             @RequestParam String userId,
             @RequestParam String truckId
     ) throws Exception {
-        // 1) fetch the full day's assignments from the scheduler
-        AssignmentsResponse all = schedulerService.getCachedAssignments();
-
-        // 2) filter by truckId
-        List<Assignment> filtered = all.getAssignments().stream()
-                .filter(a -> truckId.equals(a.getTruck_id()))
-                .collect(Collectors.toList());
-
-        // 3) wrap & return
-        AssignmentsResponse result = new AssignmentsResponse();
-        result.setAssignments(filtered);
-
-        ZoneId chicago = ZoneId.of("America/Chicago");
-        LocalDateTime arriveBy = LocalDateTime.of(2025, 4, 17, 11, 0);
-        LocalDateTime leaveAt  =
-                schedulerService.calculateDeparture(32.9853, -96.7501, 32.8998, -97.0403, arriveBy, chicago);
-
-        System.out.println("You should leave at " +
-                leaveAt.format(DateTimeFormatter.ofPattern("h:mm a")));
-
+        // Indexed by truck, so this doesn't depend on how many manifests the day has.
+        return schedulerService.getAssignmentsForTruck(truckId);
+    }
 
-        return result;
+    /**
+     * Looks up today's assignments by flight, priority or pickup time (matched to its
+     * pickup-time bucket). The first parameter given is used.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/assignments/search?flightNumber=AA100
+     * GET /api/airFlow/assignments/search?pickupTime=09:30
+     */
+    @GetMapping("/assignments/search")
+    public AssignmentsResponse searchAssignments(@RequestParam(required = false) String flightNumber,
+                                                 @RequestParam(required = false) String priority,
+                                                 @RequestParam(required = false) String pickupTime) {
+        LocalTime time = AssignmentStore.parsePickupTime(pickupTime);
+        if (pickupTime != null && time == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unparseable pickupTime: " + pickupTime);
+        }
+        return schedulerService.findAssignments(flightNumber, priority, time);
     }
 
     /**
@@ -122,21 +179,154 @@ public class ScheduletoAirportController {
                                    @RequestParam String priority,
                                    @RequestBody Coordinate coordinate) {
 
-        return mockTransportationController.getDaliIntersection("token", schedulerService.getCachedAssignmentsMap().get(assignmentId).getTruck_id(), coordinate.getLatitude(), coordinate.getLongitude(), priority);
+        String truckId = requireAssignment(assignmentId).getTruck_id();
+        fleetStateService.updatePosition(truckId, assignmentId, coordinate.getLatitude(), coordinate.getLongitude());
+        return daliAdviceService.getAdvice(truckId, coordinate.getLatitude(), coordinate.getLongitude(), priority);
+    }
+
+    /**
+     * DALI advice for several upcoming intersections in one round trip.
+     * Lookups run concurrently; the advices come back in the order of the coordinates.
+     *
+     * EXAMPLE:
+     * PUT /api/airFlow/updateDali/batch?assignmentId=...&priority=High
+     * BODY: [ { "latitude":32.91, "longitude":-97.04 }, ... ]
+     */
+    @PutMapping("/updateDali/batch")
+    public DaliBatchResponse updatesFromDaliBatch(@RequestParam String assignmentId,
+                                                  @RequestParam String priority,
+                                                  @RequestBody List<Coordinate> coordinates) {
+        if (coordinates.size() > maxDaliBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + maxDaliBatchSize + " coordinates per batch");
+        }
+        String truckId = requireAssignment(assignmentId).getTruck_id();
+        return new DaliBatchResponse(assignmentId, daliAdviceService.getAdviceBatch(truckId, coordinates, priority));
+    }
+
+    /**
+     * Next intersections ahead of the truck on its scheduled route, based on where it is now.
+     * Read-only: asking again from the same position returns the same intersections.
+     *
+     * EXAMPLE:
+     * PUT /api/airFlow/intersectionsAhead?assignmentId=...&count=3
+     * BODY: { "latitude":32.91, "longitude":-97.04 }
+     */
+    @PutMapping("/intersectionsAhead")
+    public IntersectionsResponse intersectionsAhead(@RequestParam String assignmentId,
+                                                    @RequestParam(defaultValue = "3") int count,
+                                                    @RequestBody Coordinate coordinate) {
+        List<Coordinate> ahead = intersectionCacheService
+                .getIntersectionsAhead(assignmentId, coordinate.getLatitude(), coordinate.getLongitude(), count)
+                .stream()
+                .map(inter -> new Coordinate(inter.getLocation().getLatitude(), inter.getLocation().getLongitude()))
+                .collect(Collectors.toList());
+        IntersectionsResponse response = new IntersectionsResponse();
+        response.setIntersections(ahead);
+        return response;
+    }
+
+    /**
+     * Hit/miss counters for the route cache.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/cache/routes/stats
+     */
+    @GetMapping("/cache/routes/stats")
+    public Map<String, Object> routeCacheStats() {
+        return routeCacheService.getStats();
+    }
+
+    /**
+     * Hit/miss counters for the flight info cache.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/cache/flights/stats
+     */
+    @GetMapping("/cache/flights/stats")
+    public Map<String, Object> flightCacheStats() {
+        return flightInfoCacheService.getStats();
+    }
+
+    /**
+     * Table hits vs live Directions fallbacks for departure-time lookups.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/cache/departures/stats
+     */
+    @GetMapping("/cache/departures/stats")
+    public Map<String, Object> departureTableStats() {
+        return departurePlannerService.getStats();
+    }
+
+    /**
+     * Parking/dock reservations held per assignment: hits are reused reservations,
+     * misses are upstream bookings.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/cache/reservations/stats
+     */
+    @GetMapping("/cache/reservations/stats")
+    public Map<String, Object> reservationStats() {
+        return reservationService.getStats();
     }
 
     /**
-     * Updates the trip's current location and, if necessary, recalculates the route and ETA.
+     * Truck reference data cache counters.
      *
      * EXAMPLE:
-     * PUT /api/airFlow/updateLocation/{tripId}
-     * BODY: { "latitude":12.90, "longitude":56.20 }
+     * GET /api/airFlow/cache/reference/stats
      */
-//    @PutMapping("/updateLocation/{tripId}")
-//    public Trip updateTripLocation(@PathVariable String tripId,
-//                                   @RequestBody Location newLocation) {
-//        return scheduletoAirportServices.updateTripLocation(tripId, newLocation);
-//    }
+    @GetMapping("/cache/reference/stats")
+    public Map<String, Object> referenceDataStats() {
+        return referenceDataCache.getStats();
+    }
+
+    /**
+     * assign_tasks chunk counters and the manifests still waiting to be dispatched.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/dispatch/stats
+     */
+    @GetMapping("/dispatch/stats")
+    public Map<String, Object> dispatchStats() {
+        return assignmentDispatchService.getStats();
+    }
+
+    /**
+     * Parking slots that are not reserved, across all gates.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/parking/slots
+     */
+    @GetMapping("/parking/slots")
+    public List<ParkingSlot> availableParkingSlots() {
+        return mockAirportClient.getAvailableSlots();
+    }
+
+    /**
+     * Free dock windows per dock at a terminal. Defaults to the next four hours.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/docks/availability?terminal=a&from=2025-05-01T09:00&to=2025-05-01T12:00
+     */
+    @GetMapping("/docks/availability")
+    public List<DockAvailability> dockAvailability(@RequestParam String terminal,
+                                                   @RequestParam(required = false) String from,
+                                                   @RequestParam(required = false) String to) {
+        LocalDateTime start;
+        LocalDateTime end;
+        try {
+            start = from != null ? LocalDateTime.parse(from) : LocalDateTime.now(ZoneId.of("America/Chicago"));
+            end = to != null ? LocalDateTime.parse(to) : start.plusHours(4);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unparseable from/to: " + e.getParsedString());
+        }
+        if (!end.isAfter(start)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "'to' must be after 'from'");
+        }
+        return dockSchedulerService.availability(terminal, start, end);
+    }
 
     /**
      * Completes an ongoing trip. This endpoint marks the trip as inactive,
@@ -150,6 +340,108 @@ public class ScheduletoAirportController {
         return scheduletoAirportServices.completeTrip(tripId);
     }
 
+    /**
+     * Updates the trip's location, and its ETA when given. Accepted immediately;
+     * the write is batched with other trips' updates (see TripWriteBehindService).
+     * 503 when too many writes are pending because the database is failing.
+     *
+     * EXAMPLE:
+     * PUT /api/airFlow/updateLocation/{tripId}?eta=2025-05-01T10:45
+     * BODY: { "latitude":32.91, "longitude":-97.04 }
+     */
+    @PutMapping("/updateLocation/{tripId}")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void updateLocation(@PathVariable String tripId,
+                               @RequestBody Location location,
+                               @RequestParam(required = false) String eta) {
+        LocalDateTime estimatedArrival;
+        try {
+            estimatedArrival = eta != null ? LocalDateTime.parse(eta) : null;
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unparseable eta: " + eta);
+        }
+        if (!scheduletoAirportServices.recordTripLocation(tripId, location, estimatedArrival)) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Trip updates are backed up, retry later");
+        }
+    }
+
+    /**
+     * GPS points recorded for an assignment, from the telemetry log. Defaults to the last hour.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/telemetry/{assignmentId}?from=2025-05-01T09:00&to=2025-05-01T10:00
+     */
+    @GetMapping("/telemetry/{assignmentId}")
+    public List<TelemetryPoint> telemetry(@PathVariable String assignmentId,
+                                          @RequestParam(required = false) String from,
+                                          @RequestParam(required = false) String to) throws IOException {
+        ZoneId zone = ZoneId.of("America/Chicago");
+        Instant end;
+        Instant start;
+        try {
+            end = to != null ? LocalDateTime.parse(to).atZone(zone).toInstant() : Instant.now();
+            start = from != null ? LocalDateTime.parse(from).atZone(zone).toInstant() : end.minusSeconds(3600);
+        } catch (DateTimeParseException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unparseable from/to: " + e.getParsedString());
+        }
+        return telemetryLogService.scan(assignmentId, start, end);
+    }
+
+    /**
+     * Active trips with driver, truck and parking slot, for the dashboard.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/trips/active
+     */
+    @GetMapping("/trips/active")
+    public List<ActiveTripSummary> activeTrips() {
+        return scheduletoAirportServices.getActiveTrips();
+    }
+
+    /**
+     * Current state of every tracked truck: position, assignment, route progress and ETA.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/fleet
+     */
+    @GetMapping("/fleet")
+    public List<FleetStateService.TruckState> fleet() {
+        return fleetStateService.getAll();
+    }
+
+    @GetMapping("/fleet/{truckId}")
+    public FleetStateService.TruckState fleetTruck(@PathVariable String truckId) {
+        FleetStateService.TruckState state = fleetStateService.get(truckId);
+        if (state == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Truck not tracked: " + truckId);
+        }
+        return state;
+    }
+
+    /**
+     * Trucks currently inside a bounding box.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/fleet/area?minLat=32.88&minLon=-97.06&maxLat=32.93&maxLon=-97.02
+     */
+    @GetMapping("/fleet/area")
+    public List<FleetStateService.TruckState> fleetInArea(@RequestParam double minLat, @RequestParam double minLon,
+                                                          @RequestParam double maxLat, @RequestParam double maxLon) {
+        return fleetStateService.inBoundingBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    /**
+     * The n trucks nearest to a point, nearest first.
+     *
+     * EXAMPLE:
+     * GET /api/airFlow/fleet/nearest?lat=32.90&lon=-97.04&n=5
+     */
+    @GetMapping("/fleet/nearest")
+    public List<FleetStateService.TruckState> fleetNearest(@RequestParam double lat, @RequestParam double lon,
+                                                           @RequestParam(defaultValue = "5") int n) {
+        return fleetStateService.nearest(lat, lon, n);
+    }
+
     /**
      * Retrieves details of a trip, including transient fields such as the current route,
      * latest DALI advice, and the list of DALI advices for intersections.
@@ -161,4 +453,13 @@ public class ScheduletoAirportController {
     public Trip getTrip(@PathVariable String tripId) {
         return scheduletoAirportServices.getTrip(tripId);
     }
+
+    // Unknown ids (e.g. from before the last daily refresh) are a 404, not an NPE.
+    private Assignment requireAssignment(String assignmentId) {
+        Assignment assignment = schedulerService.getAssignment(assignmentId);
+        if (assignment == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Assignment not found: " + assignmentId);
+        }
+        return assignment;
+    }
 }
@@ -0,0 +1,129 @@
+package com.airflow.centralbackend.Model;
+
+import com.airflow.centralbackend.Model.util.GeoUtils;
+
+import java.util.Arrays;
+
+/**
+ * Decoded route polyline held as fixed-point (1e-5 degree) int arrays, plus the
+ * cumulative distance to every vertex. Immutable, so one instance can be shared
+ * by every truck given the same cached route.
+ */
+public class RouteGeometry {
+    private static final double E5 = 1e5;
+    private static final double KM_PER_DEGREE = GeoUtils.distanceKm(0, 0, 1, 0);
+
+    private final int[] latE5;
+    private final int[] lonE5;
+    private final double[] cumulativeKm;
+
+    public RouteGeometry(int[] latE5, int[] lonE5, int size) {
+        this.latE5 = Arrays.copyOf(latE5, size);
+        this.lonE5 = Arrays.copyOf(lonE5, size);
+        this.cumulativeKm = new double[size];
+        for (int i = 1; i < size; i++) {
+            cumulativeKm[i] = cumulativeKm[i - 1] + segmentKm(i - 1);
+        }
+    }
+
+    public int size() {
+        return latE5.length;
+    }
+
+    public double latitude(int i) {
+        return latE5[i] / E5;
+    }
+
+    public double longitude(int i) {
+        return lonE5[i] / E5;
+    }
+
+    public double totalKm() {
+        return size() == 0 ? 0 : cumulativeKm[size() - 1];
+    }
+
+    /**
+     * Point at the given distance along the route, clamped to its ends.
+     */
+    public Location pointAt(double alongKm) {
+        if (size() == 0) {
+            return null;
+        }
+        if (alongKm <= 0 || size() == 1) {
+            return new Location(latitude(0), longitude(0));
+        }
+        if (alongKm >= totalKm()) {
+            return new Location(latitude(size() - 1), longitude(size() - 1));
+        }
+        int i = Arrays.binarySearch(cumulativeKm, alongKm);
+        if (i >= 0) {
+            return new Location(latitude(i), longitude(i));
+        }
+        int end = -i - 1;
+        int start = end - 1;
+        double span = cumulativeKm[end] - cumulativeKm[start];
+        double t = span == 0 ? 0 : (alongKm - cumulativeKm[start]) / span;
+        return new Location(latitude(start) + t * (latitude(end) - latitude(start)),
+                longitude(start) + t * (longitude(end) - longitude(start)));
+    }
+
+    /**
+     * Projects a position onto the nearest segment of the route.
+     */
+    public Snap snap(double lat, double lon) {
+        if (size() == 0) {
+            return null;
+        }
+        double kmPerDegLon = KM_PER_DEGREE * Math.cos(Math.toRadians(lat));
+        Snap best = new Snap(0, GeoUtils.distanceKm(lat, lon, latitude(0), longitude(0)), 0);
+        for (int i = 0; i + 1 < size(); i++) {
+            // Local flat projection around the query point; fine at segment scale.
+            double ax = (longitude(i) - lon) * kmPerDegLon;
+            double ay = (latitude(i) - lat) * KM_PER_DEGREE;
+            double bx = (longitude(i + 1) - lon) * kmPerDegLon;
+            double by = (latitude(i + 1) - lat) * KM_PER_DEGREE;
+            double dx = bx - ax;
+            double dy = by - ay;
+            double len2 = dx * dx + dy * dy;
+            double t = len2 == 0 ? 0 : Math.max(0, Math.min(1, -(ax * dx + ay * dy) / len2));
+            double px = ax + t * dx;
+            double py = ay + t * dy;
+            double off = Math.sqrt(px * px + py * py);
+            if (off < best.offRouteKm) {
+                best = new Snap(cumulativeKm[i] + t * (cumulativeKm[i + 1] - cumulativeKm[i]), off, i);
+            }
+        }
+        return best;
+    }
+
+    private double segmentKm(int i) {
+        return GeoUtils.distanceKm(latitude(i), longitude(i), latitude(i + 1), longitude(i + 1));
+    }
+
+    /**
+     * Result of snapping a position onto the route.
+     */
+    public static class Snap {
+        private final double alongKm;
+        private final double offRouteKm;
+        private final int segment;
+
+        public Snap(double alongKm, double offRouteKm, int segment) {
+            this.alongKm = alongKm;
+            this.offRouteKm = offRouteKm;
+            this.segment = segment;
+        }
+
+        public double getAlongKm() {
+            return alongKm;
+        }
+
+        public double getOffRouteKm() {
+            return offRouteKm;
+        }
+
+        public int getSegment() {
+            return segment;
+        }
+    }
+}
@@ -8,22 +8,36 @@ import java.util.List;
 @Entity
 @Table(name = "trips")
 public class Trip {
+    // Associations are lazy; read paths that need them say so with an entity graph
+    // (see TripRepository) instead of every load joining all three tables.
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private String id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "driver", referencedColumnName = "id")
     private Driver driver;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "truck", referencedColumnName = "id")
     private Truck truck;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // The truck's id without loading the truck; see ReferenceDataCache.
+    @Column(name = "truck", insertable = false, updatable = false)
+    private String truckId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "parking_slot", referencedColumnName = "id")
     private ParkingSlot reservedParkingSlot;
 
+    // The slot's id without loading it; completing a trip frees it in ParkingSlotAllocator.
+    @Column(name = "parking_slot", insertable = false, updatable = false)
+    private String parkingSlotId;
+
+    // The assignment this trip drives; parking, dock and intersection holds are keyed by it.
+    @Column(name = "assignment_id")
+    private String assignmentId;
+
     @Embedded
     private Location currentLocation;
 
@@ -75,6 +89,12 @@ public class Trip {
     public void setId(String id) {
         this.id = id;
     }
+    public String getAssignmentId() {
+        return assignmentId;
+    }
+    public void setAssignmentId(String assignmentId) {
+        this.assignmentId = assignmentId;
+    }
     public Driver getDriver() {
         return driver;
     }
@@ -87,12 +107,18 @@ public class Trip {
     public void setTruck(Truck truck) {
         this.truck = truck;
     }
+    public String getTruckId() {
+        return truckId;
+    }
     public ParkingSlot getReservedParkingSlot() {
         return reservedParkingSlot;
     }
     public void setReservedParkingSlot(ParkingSlot reservedParkingSlot) {
         this.reservedParkingSlot = reservedParkingSlot;
     }
+    public String getParkingSlotId() {
+        return parkingSlotId;
+    }
     public Location getCurrentLocation() {
         return currentLocation;
     }
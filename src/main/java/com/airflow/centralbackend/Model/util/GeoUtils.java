@@ -0,0 +1,29 @@
+package com.airflow.centralbackend.Model.util;
+
+/**
+ * Small geometry helpers shared by the route model and the in-memory indexes.
+ */
+public final class GeoUtils {
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private GeoUtils() {}
+
+    // Great-circle distance in kilometres.
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    // Grid cell row/column for a coordinate, packed into one long.
+    public static long cellKey(double lat, double lon, double cellDegrees) {
+        return cellKey((int) Math.floor(lat / cellDegrees), (int) Math.floor(lon / cellDegrees));
+    }
+
+    public static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
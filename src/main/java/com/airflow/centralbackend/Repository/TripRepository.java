@@ -1,9 +1,30 @@
 package com.airflow.centralbackend.Repository;
 
 import com.airflow.centralbackend.Model.Trip;
+import com.airflow.centralbackend.dto.ActiveTripSummary;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+import java.util.Optional;
+
 public interface TripRepository extends JpaRepository<Trip, String> {
-}
\ No newline at end of file
+
+    // Trip with driver, truck and parking slot in one select, for the full trip response.
+    @EntityGraph(attributePaths = {"driver", "truck", "reservedParkingSlot"})
+    Optional<Trip> findWithAssociationsById(String id);
+
+    // Only the assignment id, for location updates that arrive with just the trip id.
+    @Query("select t.assignmentId from Trip t where t.id = :id")
+    Optional<String> findAssignmentIdById(@Param("id") String id);
+
+    // Dashboard rows for every active trip in a single joined select.
+    @Query("select new com.airflow.centralbackend.dto.ActiveTripSummary("
+            + "t.id, d.name, tr.licensePlate, p.id, t.currentLocation.latitude, t.currentLocation.longitude, "
+            + "t.startTime, t.estimatedArrivalTime) "
+            + "from Trip t left join t.driver d left join t.truck tr left join t.reservedParkingSlot p "
+            + "where t.active = true order by t.estimatedArrivalTime")
+    List<ActiveTripSummary> findActiveTripSummaries();
+}
@@ -0,0 +1,210 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.AssignTasksRequest;
+import com.airflow.centralbackend.dto.Assignment;
+import com.airflow.centralbackend.dto.AssignmentsResponse;
+import com.airflow.centralbackend.dto.Manifest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends manifests to assign_tasks in bounded chunks.
+ *
+ * The upstream takes the manifests as a URL query parameter, so a large day in
+ * one call runs into URL length limits and one failure loses everything. Chunks
+ * are dispatched concurrently (with limited parallelism), each retried on its
+ * own, and the results merged back in manifest order.
+ *
+ * Manifests whose chunk still fails after retrying are kept by identity key until
+ * a later dispatch succeeds for them (see undispatched()), and counted in getStats().
+ */
+@Service
+public class AssignmentDispatchService {
+
+    @Autowired
+    private MockTransportationController mockController;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    @Value("${mock.api.token}")
+    private String apiToken;
+
+    @Value("${airflow.dispatch.chunk-size:50}")
+    private int chunkSize;
+
+    @Value("${airflow.dispatch.parallelism:4}")
+    private int parallelism;
+
+    @Value("${airflow.dispatch.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${airflow.dispatch.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    // Manifests whose last dispatch failed, by identity key.
+    private final ConcurrentHashMap<String, Manifest> undispatched = new ConcurrentHashMap<>();
+    private final AtomicLong dispatchedChunks = new AtomicLong();
+    private final AtomicLong failedChunks = new AtomicLong();
+
+    /**
+     * Dispatches the manifests and tags each returned assignment with the identity
+     * key and content hash of its manifest (see ManifestKeys). Manifests in chunks
+     * that still fail after retrying, or that were never sent because the caller
+     * was interrupted, are left out of the result and recorded as undispatched.
+     */
+    public List<Assignment> dispatch(List<Manifest> manifests, List<String> keys) {
+        List<CompletableFuture<List<Assignment>>> chunks = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(parallelism);
+        for (int start = 0; start < manifests.size(); start += chunkSize) {
+            int end = Math.min(start + chunkSize, manifests.size());
+            List<Manifest> chunk = manifests.subList(start, end);
+            List<String> chunkKeys = keys.subList(start, end);
+            int chunkNumber = start / chunkSize + 1;
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            CompletableFuture<List<Assignment>> future = new CompletableFuture<>();
+            chunks.add(future);
+            outboundExecutor.execute(() -> {
+                try {
+                    future.complete(dispatchChunk(chunk, chunkKeys, chunkNumber));
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+
+        List<Assignment> merged = new ArrayList<>(manifests.size());
+        int failed = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            int start = i * chunkSize;
+            int end = Math.min(start + chunkSize, manifests.size());
+            try {
+                merged.addAll(chunks.get(i).join());
+                dispatchedChunks.incrementAndGet();
+                for (String key : keys.subList(start, end)) {
+                    undispatched.remove(key);
+                }
+            } catch (CompletionException e) {
+                failed++;
+                failedChunks.incrementAndGet();
+                for (int m = start; m < end; m++) {
+                    undispatched.put(keys.get(m), manifests.get(m));
+                }
+            }
+        }
+        int submitted = Math.min(chunks.size() * chunkSize, manifests.size());
+        if (submitted < manifests.size()) {
+            // Interrupted before these chunks went out: keep them for the retry like failed ones.
+            int skipped = (manifests.size() - submitted + chunkSize - 1) / chunkSize;
+            failed += skipped;
+            failedChunks.addAndGet(skipped);
+            for (int m = submitted; m < manifests.size(); m++) {
+                undispatched.put(keys.get(m), manifests.get(m));
+            }
+        }
+        if (failed > 0) {
+            int total = (manifests.size() + chunkSize - 1) / chunkSize;
+            System.out.println("assign_tasks: " + failed + " of " + total + " chunks failed, "
+                    + undispatched.size() + " manifests waiting to be dispatched");
+        }
+        return merged;
+    }
+
+    /**
+     * Manifests whose last dispatch failed, by identity key, for the scheduler to retry.
+     */
+    public Map<String, Manifest> undispatched() {
+        return new LinkedHashMap<>(undispatched);
+    }
+
+    // A manifest that is no longer listed upstream doesn't need dispatching.
+    public void forget(Collection<String> identityKeys) {
+        undispatched.keySet().removeAll(identityKeys);
+    }
+
+    public void clear() {
+        undispatched.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("dispatchedChunks", dispatchedChunks.get());
+        stats.put("failedChunks", failedChunks.get());
+        stats.put("undispatched", undispatched.size());
+        stats.put("undispatchedKeys", new ArrayList<>(undispatched.keySet()));
+        return stats;
+    }
+
+    private List<Assignment> dispatchChunk(List<Manifest> chunk, List<String> keys, int chunkNumber) throws Exception {
+        Exception last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                AssignTasksRequest req = new AssignTasksRequest();
+                req.setManifests(new ArrayList<>(chunk));
+                AssignmentsResponse resp = mockController.assignTasks(apiToken, req);
+                return tag(resp != null && resp.getAssignments() != null
+                        ? new ArrayList<>(resp.getAssignments()) : new ArrayList<>(), chunk, keys);
+            } catch (Exception e) {
+                last = e;
+                System.out.println("assign_tasks chunk " + chunkNumber + " attempt " + attempt + " failed: " + e.getMessage());
+                if (attempt < maxAttempts) {
+                    Thread.sleep(retryBackoffMs * attempt);
+                }
+            }
+        }
+        throw last;
+    }
+
+    // Assignments come back in manifest order; if the counts don't line up the keys
+    // are derived from the assignment's own fields.
+    private static List<Assignment> tag(List<Assignment> assignments, List<Manifest> chunk, List<String> keys) {
+        if (assignments.size() == keys.size()) {
+            for (int i = 0; i < assignments.size(); i++) {
+                assignments.get(i).setIdentityKey(keys.get(i));
+                assignments.get(i).setContentHash(ManifestKeys.contentHash(chunk.get(i)));
+            }
+            return assignments;
+        }
+        List<Manifest> echoed = new ArrayList<>(assignments.size());
+        for (Assignment a : assignments) {
+            echoed.add(toManifest(a));
+        }
+        List<String> echoedKeys = ManifestKeys.identityKeys(echoed);
+        for (int i = 0; i < assignments.size(); i++) {
+            assignments.get(i).setIdentityKey(echoedKeys.get(i));
+            assignments.get(i).setContentHash(ManifestKeys.contentHash(echoed.get(i)));
+        }
+        return assignments;
+    }
+
+    private static Manifest toManifest(Assignment a) {
+        Manifest m = new Manifest();
+        m.setCompany_name(a.getCompany_name());
+        m.setDispatcher_name(a.getDispatcher_name());
+        m.setLocation(a.getLocation());
+        m.setTask_type(a.getTask_type());
+        m.setFlight_number(a.getFlight_number());
+        m.setPickup_time(a.getPickup_time());
+        m.setPriority(a.getPriority());
+        return m;
+    }
+}
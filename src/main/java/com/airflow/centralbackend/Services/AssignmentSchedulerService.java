@@ -5,99 +5,310 @@ import com.airflow.centralbackend.dto.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import com.google.maps.GeoApiContext;
-import com.google.maps.DirectionsApi;
-import com.google.maps.DirectionsApiRequest;
-import com.google.maps.model.DirectionsResult;
-import com.google.maps.model.TravelMode;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 @Service
 public class AssignmentSchedulerService {
 
-    private static final double AIRPORT_LAT = 32.988052;
-    private static final double AIRPORT_LON = -96.750896;
     private static final ZoneId ZONE = ZoneId.of("America/Chicago");
     private static final DateTimeFormatter HM = DateTimeFormatter.ofPattern("HH:mm");
 
     @Autowired
     private MockTransportationController mockController;
 
-    private AssignmentsResponse assignResp;
-
     @Value("${mock.api.token}")
     private String apiToken;
 
-    @Value("${api.key}")
-    private String googleMapsApiKey;
+    @Autowired
+    private DeparturePlannerService departurePlanner;
+
+    @Autowired
+    private DestinationRegistry destinationRegistry;
+
+    @Autowired
+    private AssignmentDispatchService dispatchService;
+
+    @Autowired
+    private FlightInfoCacheService flightInfoCacheService;
+
+    @Autowired
+    private ReservationService reservationService;
+
+    // Today's assignments with per-truck/flight/priority/pickup-time indexes
+    @Autowired
+    private AssignmentStore assignmentStore;
+
+    @Value("${airflow.assignments.incremental-sync:true}")
+    private boolean incrementalSync;
+
+    @Value("${airflow.assignments.load-on-startup:true}")
+    private boolean loadOnStartup;
+
+    // The day runs from the morning load to the nightly clear (see the cron expressions below).
+    private static final LocalTime DAY_START = LocalTime.of(4, 5);
+    private static final LocalTime DAY_END = LocalTime.of(23, 59);
+
+    // Set by the day's load, cleared at night; the intra-day sync only runs in between.
+    private volatile boolean dayLoaded;
 
-    // Thread-safe cache for today's assignments
-    private final Map<String,Assignment> cachedAssignments = new ConcurrentHashMap<>();
     private final Map<String, TimeDetails> flightInfoCache = new ConcurrentHashMap<>();
 
     /**
      * At midnight every day, fetch today's manifests then dispatch assign_tasks,
-     * caching the result until 23:59:00.
+     * caching the result until 23:59:00. Manifests that were already assigned
+     * keep their assignment id.
      */
     @Scheduled(cron = "0 5 4 * * *")
-    public void fetchAndCacheAssignments() throws JsonProcessingException {
+    public synchronized void fetchAndCacheAssignments() throws JsonProcessingException {
         // 1) get all manifests
-        ManifestsResponse manifestsResp = mockController.getManifests(apiToken);
+        List<Manifest> manifests = fetchManifests();
+        List<String> keys = ManifestKeys.identityKeys(manifests);
 
         // 2) assign tasks for those manifests
-        AssignTasksRequest req = new AssignTasksRequest();
-        req.setManifests(manifestsResp.getManifests());
+        List<Assignment> assignments = dispatchService.dispatch(manifests, keys);
 
-        assignResp = mockController.assignTasks(apiToken, req);
+        // 3) cache the assignments, reusing ids clients may already hold
+        AssignmentStore.Snapshot current = assignmentStore.snapshot();
+        System.out.println("All assignments");
+        for (Assignment assign : assignments) {
+            Assignment previous = current.getByIdentityKey(assign.getIdentityKey());
+            assign.setId(previous != null ? previous.getId() : UUID.randomUUID().toString());
+            System.out.println(assign.getTruck_id());
+        }
+        assignmentStore.replaceAll(assignments);
+        dayLoaded = true;
+        planDepartures(assignments);
+    }
 
+    /**
+     * A restart during the day would otherwise leave the store empty (and the
+     * intra-day sync idle) until the next morning load, so load the day now.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadDayOnStartup() {
+        if (loadOnStartup) {
+            loadDayIfMissing();
+        }
+    }
 
-                // 3) cache the assignments
-        cachedAssignments.clear();
-        System.out.println("All assignments");
-        for(int i =0; i<assignResp.getAssignments().size(); i++){
-            String uuid = UUID.randomUUID().toString();
-            Assignment assign = assignResp.getAssignments().get(i);
-            assign.setId(uuid);
-            cachedAssignments.put(uuid,assign);
-            System.out.println(assignResp.getAssignments().get(i).getTruck_id());
+    // Loads today's assignments if it is daytime and they aren't loaded yet.
+    private synchronized void loadDayIfMissing() {
+        LocalTime now = LocalTime.now(ZONE);
+        if (dayLoaded || now.isBefore(DAY_START) || !now.isBefore(DAY_END)) {
+            return;
+        }
+        try {
+            fetchAndCacheAssignments();
+        } catch (Exception e) {
+            System.out.println("Loading today's assignments failed, retrying on the next sync: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Intra-day sync: matches the manifest list to the current assignments by
+     * identity key and dispatches only manifests that are new or whose content
+     * changed. Changed manifests keep their assignment id; removed ones drop out.
+     */
+    @Scheduled(fixedDelayString = "${airflow.assignments.sync-interval-ms:300000}",
+            initialDelayString = "${airflow.assignments.sync-interval-ms:300000}")
+    public synchronized void syncAssignments() {
+        if (!dayLoaded) {
+            // The day's load hasn't happened or failed: do the full load instead.
+            loadDayIfMissing();
+            return;
+        }
+        if (!incrementalSync) {
+            retryUndispatched();
+            return;
+        }
+        List<Manifest> manifests = fetchManifests();
+        List<String> keys = ManifestKeys.identityKeys(manifests);
+        AssignmentStore.Snapshot current = assignmentStore.snapshot();
+
+        List<Assignment> kept = new ArrayList<>();
+        List<Manifest> changed = new ArrayList<>();
+        List<String> changedKeys = new ArrayList<>();
+        for (int i = 0; i < manifests.size(); i++) {
+            Assignment existing = current.getByIdentityKey(keys.get(i));
+            if (existing != null && Objects.equals(existing.getContentHash(), ManifestKeys.contentHash(manifests.get(i)))) {
+                kept.add(existing);
+            } else {
+                changed.add(manifests.get(i));
+                changedKeys.add(keys.get(i));
+            }
+        }
+        Set<String> present = new HashSet<>(keys);
+        // Undispatched manifests that are still listed are among the changed ones above.
+        Set<String> gone = new HashSet<>(dispatchService.undispatched().keySet());
+        gone.removeAll(present);
+        dispatchService.forget(gone);
+        List<Assignment> removed = new ArrayList<>();
+        for (Assignment a : current.getAll()) {
+            if (!present.contains(a.getIdentityKey())) {
+                removed.add(a);
+            }
+        }
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        for (Assignment a : removed) {
+            releaseAssignment(a.getId());
         }
 
+        List<Assignment> dispatched = changed.isEmpty() ? List.of() : dispatchService.dispatch(changed, changedKeys);
+        Set<String> redispatched = new HashSet<>();
+        int updated = 0;
+        for (Assignment assign : dispatched) {
+            // A changed manifest keeps the id of the assignment it replaces; its cached
+            // flight info was computed for the old pickup and is dropped.
+            Assignment previous = current.getByIdentityKey(assign.getIdentityKey());
+            if (previous != null) {
+                assign.setId(previous.getId());
+                flightInfoCache.remove(previous.getId());
+                updated++;
+            } else {
+                assign.setId(UUID.randomUUID().toString());
+            }
+            redispatched.add(assign.getIdentityKey());
+        }
+        List<Assignment> merged = new ArrayList<>(kept);
+        for (String key : changedKeys) {
+            // Changed manifests whose dispatch failed keep their current assignment; the
+            // stale content hash makes the next sync try again.
+            Assignment previous = current.getByIdentityKey(key);
+            if (previous != null && !redispatched.contains(key)) {
+                merged.add(previous);
+            }
+        }
+        merged.addAll(dispatched);
+        assignmentStore.replaceAll(merged);
+        planDepartures(dispatched);
+        System.out.println("Assignment sync: " + (dispatched.size() - updated) + " new, " + updated + " changed, "
+                + removed.size() + " removed, " + kept.size() + " unchanged");
+    }
+
+    /**
+     * With the incremental sync off nothing else would pick up manifests whose
+     * chunk failed, so dispatch them again here.
+     */
+    private void retryUndispatched() {
+        Map<String, Manifest> pending = dispatchService.undispatched();
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Assignment> dispatched = dispatchService.dispatch(new ArrayList<>(pending.values()), new ArrayList<>(pending.keySet()));
+        if (dispatched.isEmpty()) {
+            return;
+        }
+        AssignmentStore.Snapshot current = assignmentStore.snapshot();
+        Set<String> replaced = new HashSet<>();
+        for (Assignment assign : dispatched) {
+            // A changed manifest that failed earlier still has its old assignment in the store.
+            Assignment previous = current.getByIdentityKey(assign.getIdentityKey());
+            if (previous != null) {
+                assign.setId(previous.getId());
+                flightInfoCache.remove(previous.getId());
+                replaced.add(previous.getId());
+            } else {
+                assign.setId(UUID.randomUUID().toString());
+            }
+        }
+        List<Assignment> merged = new ArrayList<>();
+        for (Assignment a : current.getAll()) {
+            if (!replaced.contains(a.getId())) {
+                merged.add(a);
+            }
+        }
+        merged.addAll(dispatched);
+        assignmentStore.replaceAll(merged);
+        planDepartures(dispatched);
+        System.out.println("Assignment retry: " + dispatched.size() + " of " + pending.size() + " undispatched manifests assigned");
+    }
+
+    private void planDepartures(List<Assignment> assignments) {
+        Coordinate airport = destinationRegistry.airport().getLocation();
+        departurePlanner.planAsync(assignments, airport.getLatitude(), airport.getLongitude(), ZONE);
+    }
+
+    private List<Manifest> fetchManifests() {
+        ManifestsResponse manifestsResp = mockController.getManifests(apiToken);
+        return manifestsResp != null && manifestsResp.getManifests() != null ? manifestsResp.getManifests() : List.of();
     }
 
     /**
      * Clears cache at 23:59:00 every day to prepare for next cycle.
      */
     @Scheduled(cron = "0 59 23 * * *")
-    public void clearAssignmentsCache() {
-        cachedAssignments.clear();
+    public synchronized void clearAssignmentsCache() {
+        dayLoaded = false;
+        assignmentStore.clear();
+        departurePlanner.clear();
+        reservationService.clear();
+        dispatchService.clear();
+        flightInfoCache.clear();
+    }
+
+    /**
+     * Drops the reservation and flight info held for an assignment that finished or went away.
+     */
+    public void releaseAssignment(String assignmentId) {
+        reservationService.release(assignmentId);
+        flightInfoCache.remove(assignmentId);
     }
 
     /**
-     * Returns the cached AssignmentsResponse from the most recent midnight run.
+     * Returns the assignment with the given id from the most recent daily run, or null.
      */
-    public Map<String,Assignment> getCachedAssignmentsMap() {
-        return cachedAssignments;
+    public Assignment getAssignment(String assignmentId) {
+        return assignmentStore.get(assignmentId);
     }
 
     public AssignmentsResponse getCachedAssignments() {
-        if(cachedAssignments == null){
-            return new AssignmentsResponse();
+        return toResponse(assignmentStore.getAll());
+    }
+
+    public AssignmentsResponse getAssignmentsForTruck(String truckId) {
+        return toResponse(assignmentStore.findByTruck(truckId));
+    }
+
+    /**
+     * Looks assignments up through one of the secondary indexes; the first
+     * non-null criterion wins. Pickup time matches its whole time bucket.
+     */
+    public AssignmentsResponse findAssignments(String flightNumber, String priority, LocalTime pickupTime) {
+        if (flightNumber != null) {
+            return toResponse(assignmentStore.findByFlight(flightNumber));
         }
-        else{
-            return assignResp;
+        if (priority != null) {
+            return toResponse(assignmentStore.findByPriority(priority));
         }
+        if (pickupTime != null) {
+            return toResponse(assignmentStore.findByPickupBucket(pickupTime));
+        }
+        return getCachedAssignments();
+    }
+
+    private static AssignmentsResponse toResponse(List<Assignment> assignments) {
+        AssignmentsResponse response = new AssignmentsResponse();
+        response.setAssignments(assignments);
+        return response;
     }
 
     public TimeDetails getFlightInfo(String token, String flightNumber, String assignmentId, String currLat, String currLon, String assignmentID) throws Exception {
-        FlighInfoResponse FlightNumber = mockController.fetchFlightInfo(token, flightNumber);
+        FlighInfoResponse FlightNumber = flightInfoCacheService.get(token, flightNumber);
         double currLatitude  = Double.parseDouble(
                 currLat.trim().replace('−','-')
         );
@@ -108,7 +319,10 @@ public class AssignmentSchedulerService {
         timeDetails.setAssignmentId(assignmentID);
         timeDetails.setFlightNumber(flightNumber);
         timeDetails.setFlightTerminal(FlightNumber.getTerminal());
-        Assignment assignment = cachedAssignments.get(assignmentId);
+        Assignment assignment = assignmentStore.get(assignmentId);
+        if (assignment == null) {
+            throw new IllegalArgumentException("Assignment not found: " + assignmentId);
+        }
 
         LocalTime arrivalTime = LocalTime.parse(FlightNumber.getArrival_time(), HM);
         LocalDate today = LocalDate.now(ZONE);
@@ -120,11 +334,12 @@ public class AssignmentSchedulerService {
         if (targetArrival.isBefore(now)) {
             targetArrival = targetArrival.plusDays(1);
         }
+        Coordinate airport = destinationRegistry.airport().getLocation();
         LocalDateTime departure = calculateDeparture(
                 pickUpLatitude,
                 pickUpLongitude,
-                AIRPORT_LAT,
-                AIRPORT_LON,
+                airport.getLatitude(),
+                airport.getLongitude(),
                 targetArrival,
                 ZONE
         );
@@ -146,14 +361,20 @@ public class AssignmentSchedulerService {
         );
         timeDetails.setEstimatedStartTimeFromCurrent(departureFromCurr.toString());
 
-        ParkingResponse reserveParking = mockController.reserveParking(apiToken);
-        DockResponse reserveDoc = mockController.reserveDock(apiToken, timeDetails.getFlightTerminal());
+        // Held per assignment, so refreshing doesn't book new slots upstream. The dock
+        // window starts when the truck reaches the airport for the flight.
+        ReservationService.Reservation reservation =
+                reservationService.reserve(assignmentID, timeDetails.getFlightTerminal(), targetArrival);
+        ParkingResponse reserveParking = reservation.getParking();
+        DockSchedulerService.DockBooking reserveDoc = reservation.getDock();
         timeDetails.setParkingId(reserveParking.getParkingId());
         timeDetails.setParkinglocation(reserveParking.getLocation());
         timeDetails.setDockId(reserveDoc.getDockId());
         timeDetails.setDocklocation(reserveDoc.getLocation());
+        timeDetails.setDockWindowStart(reserveDoc.getStart().toString());
+        timeDetails.setDockWindowEnd(reserveDoc.getEnd().toString());
         flightInfoCache.put(assignmentID,timeDetails);
-        System.out.println(reserveParking+" "+reserveDoc);
+        System.out.println(reserveParking.getParkingId()+" "+reserveDoc.getDockId());
         return timeDetails;
     }
 
@@ -161,33 +382,15 @@ public class AssignmentSchedulerService {
         return flightInfoCache.get(assignmentID);
     }
 
+    /**
+     * Departure time needed to reach the destination by targetArrival; served from
+     * the precomputed departure table where possible, see DeparturePlannerService.
+     */
     public LocalDateTime calculateDeparture(
             double originLat, double originLng,
             double destLat,   double destLng,
             LocalDateTime targetArrival, ZoneId zone
     ) throws Exception {
-        String origin      = originLat  + "," + originLng;
-        String destination = destLat    + "," + destLng;
-        Instant arrivalTs     = targetArrival.atZone(zone).toInstant();
-
-        GeoApiContext ctx = new GeoApiContext.Builder()
-                .apiKey(googleMapsApiKey)
-                .build();
-
-        DirectionsResult result = DirectionsApi.newRequest(ctx)
-                .mode(TravelMode.DRIVING)
-                .origin(origin)
-                .destination(destination)
-                .departureTime(arrivalTs)
-                .await();
-
-        long durSec = result.routes[0].legs[0].durationInTraffic.inSeconds;
-        Instant departureInstant = arrivalTs.minusSeconds(durSec);
-        LocalDateTime recommendedDeparture =
-                LocalDateTime.ofInstant(departureInstant, zone);
-        System.out.println(recommendedDeparture);
-        return LocalDateTime.ofInstant(departureInstant, zone);
+        return departurePlanner.departureFor(originLat, originLng, destLat, destLng, targetArrival, zone);
     }
-
-
 }
@@ -0,0 +1,186 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Assignment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The day's assignments, indexed by id, truck, flight, priority and pickup-time
+ * bucket so driver lookups don't scan the whole day.
+ *
+ * All indexes live in one immutable, versioned {@link Snapshot}. A refresh builds
+ * the next snapshot off to the side and publishes it with a single volatile write,
+ * so readers take no lock and never see a half-built day. A request that holds on
+ * to a snapshot keeps reading it consistently even if a refresh lands meanwhile.
+ */
+@Service
+public class AssignmentStore {
+
+    @Value("${airflow.assignments.pickup-bucket-minutes:30}")
+    private int pickupBucketMinutes;
+
+    private final AtomicLong versions = new AtomicLong();
+    private volatile Snapshot current = new Snapshot(0, Collections.emptyList(), 30);
+
+    /**
+     * Replaces every assignment. Assignments must already carry their ids.
+     */
+    public Snapshot replaceAll(List<Assignment> assignments) {
+        Snapshot next = new Snapshot(versions.incrementAndGet(), assignments, pickupBucketMinutes);
+        current = next;
+        return next;
+    }
+
+    public void clear() {
+        replaceAll(Collections.emptyList());
+    }
+
+    // The currently published snapshot; hold on to it to read several values consistently.
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public Assignment get(String assignmentId) {
+        return current.get(assignmentId);
+    }
+
+    public List<Assignment> getAll() {
+        return current.getAll();
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    public List<Assignment> findByTruck(String truckId) {
+        return current.findByTruck(truckId);
+    }
+
+    public List<Assignment> findByFlight(String flightNumber) {
+        return current.findByFlight(flightNumber);
+    }
+
+    public List<Assignment> findByPriority(String priority) {
+        return current.findByPriority(priority);
+    }
+
+    // Assignments whose pickup time falls in the same bucket as the given time.
+    public List<Assignment> findByPickupBucket(LocalTime time) {
+        return current.findByPickupBucket(time);
+    }
+
+    /**
+     * Parses an assignment pickup time ("HH:mm", "HH:mm:ss" or an ISO date-time).
+     * Returns null when it can't be parsed.
+     */
+    public static LocalTime parsePickupTime(String pickupTime) {
+        if (pickupTime == null || pickupTime.isBlank()) {
+            return null;
+        }
+        String value = pickupTime.trim();
+        try {
+            return LocalTime.parse(value);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(value).toLocalTime();
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * One immutable version of the day's assignments and their indexes.
+     */
+    public static final class Snapshot {
+        private final long version;
+        private final int pickupBucketMinutes;
+        private final List<Assignment> all;
+        private final Map<String, Assignment> byId = new HashMap<>();
+        private final Map<String, Assignment> byIdentityKey = new HashMap<>();
+        private final Map<String, List<Assignment>> byTruck = new HashMap<>();
+        private final Map<String, List<Assignment>> byFlight = new HashMap<>();
+        private final Map<String, List<Assignment>> byPriority = new HashMap<>();
+        private final Map<Integer, List<Assignment>> byPickupBucket = new HashMap<>();
+
+        private Snapshot(long version, List<Assignment> assignments, int pickupBucketMinutes) {
+            this.version = version;
+            this.pickupBucketMinutes = pickupBucketMinutes;
+            this.all = Collections.unmodifiableList(new ArrayList<>(assignments));
+            for (Assignment a : all) {
+                byId.put(a.getId(), a);
+                if (a.getIdentityKey() != null) {
+                    byIdentityKey.put(a.getIdentityKey(), a);
+                }
+                index(byTruck, a.getTruck_id(), a);
+                index(byFlight, a.getFlight_number(), a);
+                index(byPriority, a.getPriority(), a);
+                LocalTime pickup = parsePickupTime(a.getPickup_time());
+                if (pickup != null) {
+                    index(byPickupBucket, bucket(pickup), a);
+                }
+            }
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public Assignment get(String assignmentId) {
+            return assignmentId == null ? null : byId.get(assignmentId);
+        }
+
+        // The assignment dispatched for the manifest with this identity key, if any.
+        public Assignment getByIdentityKey(String identityKey) {
+            return identityKey == null ? null : byIdentityKey.get(identityKey);
+        }
+
+        public List<Assignment> getAll() {
+            return all;
+        }
+
+        public int size() {
+            return all.size();
+        }
+
+        public List<Assignment> findByTruck(String truckId) {
+            return lookup(byTruck, truckId);
+        }
+
+        public List<Assignment> findByFlight(String flightNumber) {
+            return lookup(byFlight, flightNumber);
+        }
+
+        public List<Assignment> findByPriority(String priority) {
+            return lookup(byPriority, priority);
+        }
+
+        public List<Assignment> findByPickupBucket(LocalTime time) {
+            return lookup(byPickupBucket, bucket(time));
+        }
+
+        private int bucket(LocalTime time) {
+            return time.toSecondOfDay() / 60 / pickupBucketMinutes;
+        }
+
+        private static <K> void index(Map<K, List<Assignment>> index, K key, Assignment a) {
+            if (key != null) {
+                index.computeIfAbsent(key, k -> new ArrayList<>()).add(a);
+            }
+        }
+
+        private static <K> List<Assignment> lookup(Map<K, List<Assignment>> index, K key) {
+            if (key == null) {
+                return Collections.emptyList();
+            }
+            List<Assignment> found = index.get(key);
+            return found == null ? Collections.emptyList() : Collections.unmodifiableList(found);
+        }
+    }
+}
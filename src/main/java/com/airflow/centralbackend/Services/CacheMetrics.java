@@ -0,0 +1,61 @@
+package com.airflow.centralbackend.Services;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simple hit/miss/eviction counters shared by the in-process caches.
+ */
+public class CacheMetrics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    // A hit served from an expired entry while it is refreshed in the background.
+    public void recordStaleHit() {
+        hits.incrementAndGet();
+        staleHits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    public void recordEvictions(long count) {
+        evictions.addAndGet(count);
+    }
+
+    public void recordInvalidations(long count) {
+        invalidations.addAndGet(count);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    // Returns a point-in-time view suitable for a JSON response.
+    public Map<String, Object> snapshot(int size) {
+        long h = hits.get();
+        long m = misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size);
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", (h + m) == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("staleHits", staleHits.get());
+        stats.put("evictions", evictions.get());
+        stats.put("invalidations", invalidations.get());
+        return stats;
+    }
+}
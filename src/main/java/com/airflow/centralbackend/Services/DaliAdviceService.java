@@ -0,0 +1,113 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.IntersectionResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Fetches DALI intersection advice. Identical lookups that are already in flight
+ * share one upstream call, and batches fan out over the outbound executor.
+ */
+@Service
+public class DaliAdviceService {
+
+    @Autowired
+    private MockTransportationController mockTransportationController;
+
+    @Autowired
+    private RouteCacheService routeCacheService;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    @Value("${airflow.dali.batch-timeout-ms:8000}")
+    private long batchTimeoutMs;
+
+    // How long a single lookup waits, shared or not, before giving up on DALI.
+    @Value("${airflow.dali.advice-timeout-ms:5000}")
+    private long adviceTimeoutMs;
+
+    private final ConcurrentHashMap<String, CompletableFuture<IntersectionResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Waits at most adviceTimeoutMs for the (possibly shared) lookup. Timing out
+     * only gives up this caller's wait; the upstream call and its other waiters
+     * carry on.
+     */
+    public IntersectionResponse getAdvice(String truckId, double lat, double lon, String priority) {
+        try {
+            return getAdviceAsync(truckId, lat, lon, priority).get(adviceTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                    "DALI advice for truck " + truckId + " timed out after " + adviceTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    public CompletableFuture<IntersectionResponse> getAdviceAsync(String truckId, double lat, double lon, String priority) {
+        String key = truckId + "|" + lat + "|" + lon + "|" + priority;
+        CompletableFuture<IntersectionResponse> created = new CompletableFuture<>();
+        CompletableFuture<IntersectionResponse> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+        outboundExecutor.execute(() -> {
+            try {
+                IntersectionResponse advice = mockTransportationController.getDaliIntersection("token", truckId, lat, lon, priority);
+                // An accident makes any cached route through this point stale.
+                if (advice != null && advice.isAccident()) {
+                    routeCacheService.invalidateNear(lat, lon);
+                }
+                created.complete(advice);
+            } catch (Throwable t) {
+                created.completeExceptionally(t);
+            } finally {
+                inFlight.remove(key, created);
+            }
+        });
+        return created;
+    }
+
+    /**
+     * Looks up advice for every coordinate concurrently. The result is aligned with
+     * the input; an entry is null if its lookup failed or missed the batch deadline.
+     */
+    public List<IntersectionResponse> getAdviceBatch(String truckId, List<Coordinate> coordinates, String priority) {
+        List<CompletableFuture<IntersectionResponse>> futures = new ArrayList<>(coordinates.size());
+        for (Coordinate c : coordinates) {
+            futures.add(getAdviceAsync(truckId, c.getLatitude(), c.getLongitude(), priority));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs);
+        List<IntersectionResponse> advices = new ArrayList<>(futures.size());
+        for (CompletableFuture<IntersectionResponse> future : futures) {
+            try {
+                advices.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                advices.add(null);
+            } catch (ExecutionException | TimeoutException e) {
+                System.out.println("DALI lookup failed for truck " + truckId + ": " + e.getMessage());
+                advices.add(null);
+            }
+        }
+        return advices;
+    }
+}
@@ -0,0 +1,171 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Assignment;
+import com.airflow.centralbackend.dto.DaliAdviceMessage;
+import com.airflow.centralbackend.dto.PositionUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Turns streamed driver positions into DALI advice pushed back over STOMP.
+ *
+ * Each assignment has at most one DALI lookup in flight. Positions that arrive
+ * while a lookup is running overwrite each other, so only the newest one is
+ * looked up next and a fast-reporting truck can't queue up stale work.
+ *
+ * Slow consumers: advice goes out through the client outbound channel, whose
+ * queue is bounded (airflow.ws.outbound-queue-capacity). When it is full the
+ * advice is dropped and counted rather than queued; the next position brings
+ * fresh advice anyway. A single session that can't keep up is closed by the
+ * transport limits set in WebSocketConfig.
+ *
+ * Per-assignment state is removed when the last session sending for it
+ * disconnects, when its assignment is gone, and at the nightly reset.
+ */
+@Service
+public class DaliStreamService {
+
+    private static final String DEFAULT_PRIORITY = "High";
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private DaliAdviceService daliAdviceService;
+
+    @Autowired
+    private AssignmentSchedulerService schedulerService;
+
+    @Autowired
+    private TelemetryLogService telemetryLog;
+
+    @Autowired
+    private FleetStateService fleetState;
+
+    private final ConcurrentHashMap<String, Stream> streams = new ConcurrentHashMap<>();
+    // Assignments each STOMP session has sent positions for, so a disconnect can clean up.
+    private final ConcurrentHashMap<String, Set<String>> sessionAssignments = new ConcurrentHashMap<>();
+    private final AtomicLong droppedAdvice = new AtomicLong();
+
+    public void onPosition(String sessionId, String assignmentId, PositionUpdate update) {
+        Assignment assignment = assignmentId != null ? schedulerService.getAssignment(assignmentId) : null;
+        if (assignment == null) {
+            // Only today's assignments are logged; any client can name an id, so nothing is kept for others.
+            System.out.println("DALI stream: position for unknown assignment " + assignmentId + " ignored");
+            if (assignmentId != null) {
+                streams.remove(assignmentId);
+            }
+            return;
+        }
+        // Every point is logged and applied to the fleet state, even the ones conflated away below.
+        telemetryLog.append(assignmentId, update.getLatitude(), update.getLongitude());
+        fleetState.updatePosition(assignment.getTruck_id(), assignmentId, update.getLatitude(), update.getLongitude());
+        Stream stream = streams.computeIfAbsent(assignmentId, id -> new Stream());
+        if (sessionId != null) {
+            stream.sessions.add(sessionId);
+            sessionAssignments.computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(assignmentId);
+        }
+        stream.pending.set(update);
+        drain(assignmentId, stream);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Set<String> assignmentIds = sessionAssignments.remove(event.getSessionId());
+        if (assignmentIds == null) {
+            return;
+        }
+        for (String assignmentId : assignmentIds) {
+            streams.computeIfPresent(assignmentId, (id, stream) -> {
+                stream.sessions.remove(event.getSessionId());
+                return stream.sessions.isEmpty() ? null : stream;
+            });
+        }
+    }
+
+    /**
+     * Assignment ids change with each day's load, so yesterday's streams go at the nightly reset.
+     */
+    @Scheduled(cron = "0 59 23 * * *")
+    public void clear() {
+        streams.clear();
+        sessionAssignments.clear();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("streams", streams.size());
+        stats.put("sessions", sessionAssignments.size());
+        stats.put("droppedAdvice", droppedAdvice.get());
+        return stats;
+    }
+
+    public static String adviceTopic(String assignmentId) {
+        return "/topic/assignments/" + assignmentId + "/advice";
+    }
+
+    private void drain(String assignmentId, Stream stream) {
+        while (stream.busy.compareAndSet(false, true)) {
+            PositionUpdate next = stream.pending.getAndSet(null);
+            if (next == null) {
+                stream.busy.set(false);
+                // A position may have arrived between the read and the release.
+                if (stream.pending.get() == null) {
+                    return;
+                }
+                continue;
+            }
+            Assignment assignment = schedulerService.getAssignment(assignmentId);
+            if (assignment == null) {
+                // Unknown or released assignment: nothing to advise, and nothing to keep.
+                System.out.println("DALI stream: unknown assignment " + assignmentId);
+                streams.remove(assignmentId, stream);
+                stream.busy.set(false);
+                return;
+            }
+            String priority = next.getPriority() != null ? next.getPriority() : DEFAULT_PRIORITY;
+            daliAdviceService.getAdviceAsync(assignment.getTruck_id(), next.getLatitude(), next.getLongitude(), priority)
+                    .whenComplete((advice, ex) -> {
+                        if (ex != null) {
+                            System.out.println("DALI stream lookup failed for " + assignmentId + ": " + ex.getMessage());
+                        } else if (advice != null) {
+                            send(assignmentId, new DaliAdviceMessage(assignmentId, next.getLatitude(), next.getLongitude(), advice));
+                        }
+                        stream.busy.set(false);
+                        drain(assignmentId, stream);
+                    });
+            return;
+        }
+    }
+
+    private void send(String assignmentId, DaliAdviceMessage message) {
+        try {
+            messagingTemplate.convertAndSend(adviceTopic(assignmentId), message);
+        } catch (MessageDeliveryException e) {
+            // Outbound queue full: drop this advice rather than let it back up further.
+            long dropped = droppedAdvice.incrementAndGet();
+            if (dropped % 100 == 1) {
+                System.out.println("DALI stream: outbound queue full, " + dropped + " advice messages dropped so far");
+            }
+        }
+    }
+
+    private static final class Stream {
+        private final AtomicReference<PositionUpdate> pending = new AtomicReference<>();
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final Set<String> sessions = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,265 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.util.GeoUtils;
+import com.airflow.centralbackend.dto.Assignment;
+import com.google.maps.DirectionsApi;
+import com.google.maps.GeoApiContext;
+import com.google.maps.model.DirectionsResult;
+import com.google.maps.model.TravelMode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Traffic-aware travel durations, precomputed per leg in time-of-day buckets.
+ *
+ * After the assignments are loaded, the pickup -> airport leg of each assignment
+ * is looked up in the background for every bucket in a window around its pickup
+ * time. Request-time departures are interpolated from that table; only legs or
+ * times that aren't covered fall back to a live Directions call, whose result is
+ * kept for the next request.
+ *
+ * Planning runs the Directions calls on the outbound pool, at most
+ * airflow.departure-planner.parallelism at a time. Legs seen only at request
+ * time (e.g. from a truck's live position) are kept up to
+ * airflow.departure-planner.max-legs; past that they are answered live without
+ * being cached, while planned legs are always kept.
+ */
+@Service
+public class DeparturePlannerService {
+
+    @Autowired
+    private GeoApiContext geoApiContext;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    @Value("${airflow.departure-planner.bucket-minutes:30}")
+    private int bucketMinutes;
+
+    @Value("${airflow.departure-planner.window-before-minutes:60}")
+    private int windowBeforeMinutes;
+
+    @Value("${airflow.departure-planner.window-after-minutes:240}")
+    private int windowAfterMinutes;
+
+    // Origins/destinations within the same cell share a leg profile.
+    @Value("${airflow.departure-planner.cell-degrees:0.002}")
+    private double cellDegrees;
+
+    @Value("${airflow.departure-planner.parallelism:8}")
+    private int parallelism;
+
+    @Value("${airflow.departure-planner.max-legs:5000}")
+    private int maxLegs;
+
+    private final ConcurrentHashMap<String, LegProfile> profiles = new ConcurrentHashMap<>();
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    /**
+     * Precomputes the assignment -> destination leg for each assignment, off the caller's thread.
+     */
+    public void planAsync(List<Assignment> assignments, double destLat, double destLng, ZoneId zone) {
+        if (assignments.isEmpty()) {
+            return;
+        }
+        List<Assignment> toPlan = List.copyOf(assignments);
+        outboundExecutor.execute(() -> plan(toPlan, destLat, destLng, zone));
+    }
+
+    private void plan(List<Assignment> assignments, double destLat, double destLng, ZoneId zone) {
+        AtomicInteger filled = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(parallelism);
+        // Assignments with nearby pickups share legs; each leg/bucket is looked up once.
+        Set<String> scheduled = new HashSet<>();
+        List<CompletableFuture<Void>> calls = new ArrayList<>();
+        for (Assignment a : assignments) {
+            LocalTime pickup = AssignmentStore.parsePickupTime(a.getPickup_time());
+            if (a.getLocation() == null || pickup == null) {
+                continue;
+            }
+            double originLat = a.getLocation().getLatitude();
+            double originLng = a.getLocation().getLongitude();
+            String key = legKey(originLat, originLng, destLat, destLng);
+            LegProfile profile = profiles.computeIfAbsent(key, k -> newProfile());
+            int first = Math.floorDiv(pickup.toSecondOfDay() / 60 - windowBeforeMinutes, bucketMinutes);
+            int last = Math.floorDiv(pickup.toSecondOfDay() / 60 + windowAfterMinutes, bucketMinutes);
+            for (int b = first; b <= last; b++) {
+                int bucket = Math.floorMod(b, profile.size());
+                if (profile.get(bucket) > 0 || !scheduled.add(key + "@" + bucket)) {
+                    continue;
+                }
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                CompletableFuture<Void> call = new CompletableFuture<>();
+                calls.add(call);
+                outboundExecutor.execute(() -> {
+                    try {
+                        Instant departure = nextOccurrence(LocalTime.ofSecondOfDay((long) bucket * bucketMinutes * 60), zone);
+                        profile.put(bucket, (int) liveDurationSeconds(originLat, originLng, destLat, destLng, departure));
+                        filled.incrementAndGet();
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                        call.complete(null);
+                    }
+                });
+            }
+        }
+        // Logged when the last call finishes; nothing waits on it, so the pool thread is free meanwhile.
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).thenRun(() ->
+                System.out.println("Departure planner: " + filled.get() + " buckets filled, " + failed.get() + " failed, "
+                        + profiles.size() + " legs"));
+    }
+
+    /**
+     * Departure time needed to arrive at the destination by targetArrival.
+     */
+    public LocalDateTime departureFor(double originLat, double originLng,
+                                      double destLat, double destLng,
+                                      LocalDateTime targetArrival, ZoneId zone) throws Exception {
+        LegProfile profile = profile(originLat, originLng, destLat, destLng);
+        Instant arrivalTs = targetArrival.atZone(zone).toInstant();
+        int arrivalSecond = targetArrival.toLocalTime().toSecondOfDay();
+
+        // Look the duration up at the arrival time, then once more at the
+        // departure time that implies.
+        int duration = profile.interpolate(arrivalSecond);
+        if (duration > 0) {
+            int refined = profile.interpolate(Math.floorMod(arrivalSecond - duration, 86400));
+            if (refined > 0) {
+                duration = refined;
+            }
+            metrics.recordHit();
+        } else {
+            metrics.recordMiss();
+            duration = (int) liveDurationSeconds(originLat, originLng, destLat, destLng, arrivalTs);
+            profile.putNearest(arrivalSecond, duration);
+        }
+        return LocalDateTime.ofInstant(arrivalTs.minusSeconds(duration), zone);
+    }
+
+    /**
+     * Live traffic-aware driving duration in seconds for a departure at the given instant.
+     */
+    public long liveDurationSeconds(double originLat, double originLng,
+                                    double destLat, double destLng,
+                                    Instant departure) throws Exception {
+        DirectionsResult result = DirectionsApi.newRequest(geoApiContext)
+                .mode(TravelMode.DRIVING)
+                .origin(originLat + "," + originLng)
+                .destination(destLat + "," + destLng)
+                .departureTime(departure)
+                .await();
+        return result.routes[0].legs[0].durationInTraffic.inSeconds;
+    }
+
+    public void clear() {
+        int size = profiles.size();
+        profiles.clear();
+        metrics.recordInvalidations(size);
+    }
+
+    public Map<String, Object> getStats() {
+        return metrics.snapshot(profiles.size());
+    }
+
+    // The leg's cached profile; a new leg past maxLegs gets a throwaway one so the table stays bounded.
+    private LegProfile profile(double originLat, double originLng, double destLat, double destLng) {
+        String key = legKey(originLat, originLng, destLat, destLng);
+        LegProfile profile = profiles.get(key);
+        if (profile != null) {
+            return profile;
+        }
+        if (profiles.size() >= maxLegs) {
+            return newProfile();
+        }
+        return profiles.computeIfAbsent(key, k -> newProfile());
+    }
+
+    private String legKey(double originLat, double originLng, double destLat, double destLng) {
+        return GeoUtils.cellKey(originLat, originLng, cellDegrees) + ">" + GeoUtils.cellKey(destLat, destLng, cellDegrees);
+    }
+
+    private LegProfile newProfile() {
+        return new LegProfile(24 * 60 / bucketMinutes, bucketMinutes * 60);
+    }
+
+    // Directions only accepts departure times that aren't in the past.
+    private static Instant nextOccurrence(LocalTime time, ZoneId zone) {
+        ZonedDateTime now = ZonedDateTime.now(zone);
+        ZonedDateTime at = now.with(time);
+        return (at.isBefore(now) ? at.plusDays(1) : at).toInstant();
+    }
+
+    /**
+     * Durations in seconds for one leg, one slot per time-of-day bucket; 0 means not known yet.
+     */
+    private static final class LegProfile {
+        private final AtomicIntegerArray durations;
+        private final int bucketSeconds;
+
+        private LegProfile(int buckets, int bucketSeconds) {
+            this.durations = new AtomicIntegerArray(buckets);
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        int size() {
+            return durations.length();
+        }
+
+        int get(int bucket) {
+            return durations.get(bucket);
+        }
+
+        void put(int bucket, int seconds) {
+            durations.set(bucket, Math.max(1, seconds));
+        }
+
+        void putNearest(int secondOfDay, int seconds) {
+            int bucket = Math.floorMod(Math.round((float) secondOfDay / bucketSeconds), size());
+            durations.compareAndSet(bucket, 0, Math.max(1, seconds));
+        }
+
+        // Linear between the surrounding buckets; a single known neighbour is used
+        // when it's the nearer one. Returns 0 when nothing close is known.
+        int interpolate(int secondOfDay) {
+            int b0 = secondOfDay / bucketSeconds;
+            int b1 = (b0 + 1) % size();
+            double frac = (double) (secondOfDay - b0 * bucketSeconds) / bucketSeconds;
+            int d0 = durations.get(b0 % size());
+            int d1 = durations.get(b1);
+            if (d0 > 0 && d1 > 0) {
+                return (int) Math.round(d0 + (d1 - d0) * frac);
+            }
+            if (d0 > 0 && frac < 0.5) {
+                return d0;
+            }
+            if (d1 > 0 && frac >= 0.5) {
+                return d1;
+            }
+            return 0;
+        }
+    }
+}
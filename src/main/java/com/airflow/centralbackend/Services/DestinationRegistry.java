@@ -0,0 +1,170 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Coordinate;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Named airport destinations, terminals and each terminal's docks, loaded at startup
+ * from a JSON file (classpath:destinations.json unless airflow.destinations.location
+ * points elsewhere).
+ *
+ * Lookups are case-insensitive hash lookups. Unknown destinations and terminals
+ * resolve to the airport's configured default, like the old fall-through branches.
+ * New airports or terminals only need an edit to the file.
+ */
+@Service
+public class DestinationRegistry {
+
+    @Value("${airflow.destinations.location:classpath:destinations.json}")
+    private Resource location;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Map<String, Airport> airports = Collections.emptyMap();
+    private Airport defaultAirport;
+
+    @PostConstruct
+    public void load() throws IOException {
+        JsonNode root;
+        try (InputStream in = location.getInputStream()) {
+            root = objectMapper.readTree(in);
+        }
+        Map<String, Airport> loaded = new HashMap<>();
+        for (JsonNode node : root.path("airports")) {
+            Airport airport = new Airport(node);
+            loaded.put(key(airport.code), airport);
+        }
+        Airport fallback = loaded.get(key(root.path("defaultAirport").asText("")));
+        if (fallback == null) {
+            throw new IllegalStateException("Destination registry " + location + " has no default airport");
+        }
+        airports = loaded;
+        defaultAirport = fallback;
+        System.out.println("Destination registry: " + loaded.size() + " airports loaded from " + location);
+    }
+
+    public Airport airport() {
+        return defaultAirport;
+    }
+
+    // The named airport, or the default one when the code is null or unknown.
+    public Airport airport(String code) {
+        Airport airport = code == null ? null : airports.get(key(code));
+        return airport != null ? airport : defaultAirport;
+    }
+
+    public Collection<Airport> airports() {
+        return airports.values();
+    }
+
+    public Coordinate destination(String where) {
+        return defaultAirport.destination(where);
+    }
+
+    public Coordinate terminal(String terminal) {
+        return defaultAirport.terminal(terminal);
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Coordinate coordinate(JsonNode node) {
+        return new Coordinate(node.path("latitude").asDouble(), node.path("longitude").asDouble());
+    }
+
+    private static Map<String, Coordinate> coordinates(JsonNode node) {
+        Map<String, Coordinate> byName = new LinkedHashMap<>();
+        node.fields().forEachRemaining(e -> byName.put(key(e.getKey()), coordinate(e.getValue())));
+        return Collections.unmodifiableMap(byName);
+    }
+
+    private static Map<String, List<String>> dockIds(JsonNode terminals) {
+        Map<String, List<String>> byTerminal = new LinkedHashMap<>();
+        terminals.fields().forEachRemaining(e -> {
+            List<String> ids = new ArrayList<>();
+            e.getValue().path("docks").forEach(dock -> ids.add(dock.asText()));
+            byTerminal.put(key(e.getKey()), Collections.unmodifiableList(ids));
+        });
+        return Collections.unmodifiableMap(byTerminal);
+    }
+
+    /**
+     * One airport's location, named destinations, terminals and their docks.
+     */
+    public static final class Airport {
+        private final String code;
+        private final Coordinate location;
+        private final Map<String, Coordinate> destinations;
+        private final Map<String, Coordinate> terminals;
+        private final Map<String, List<String>> docks;
+        private final Coordinate defaultDestination;
+        private final String defaultTerminal;
+
+        private Airport(JsonNode node) {
+            this.code = node.path("code").asText();
+            this.location = coordinate(node.path("location"));
+            this.destinations = coordinates(node.path("destinations"));
+            this.terminals = coordinates(node.path("terminals"));
+            this.docks = dockIds(node.path("terminals"));
+            this.defaultDestination = destinations.get(key(node.path("defaultDestination").asText("default")));
+            this.defaultTerminal = key(node.path("defaultTerminal").asText(""));
+            if (defaultDestination == null || !terminals.containsKey(defaultTerminal)) {
+                throw new IllegalStateException("Airport " + code + " needs a valid defaultDestination and defaultTerminal");
+            }
+            docks.forEach((terminal, ids) -> {
+                if (ids.isEmpty()) {
+                    throw new IllegalStateException("Terminal " + terminal + " at " + code + " has no docks");
+                }
+            });
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public Coordinate getLocation() {
+            return location;
+        }
+
+        public Coordinate destination(String where) {
+            Coordinate c = where == null ? null : destinations.get(key(where));
+            return c != null ? c : defaultDestination;
+        }
+
+        public Coordinate terminal(String terminal) {
+            Coordinate c = terminal == null ? null : terminals.get(key(terminal));
+            return c != null ? c : terminals.get(defaultTerminal);
+        }
+
+        // Canonical terminal name: unknown terminals map to the default one.
+        public String terminalName(String terminal) {
+            return terminal != null && terminals.containsKey(key(terminal)) ? key(terminal) : defaultTerminal;
+        }
+
+        // Every named destination and terminal, e.g. for route precomputation.
+        public Map<String, Coordinate> getDestinations() {
+            return destinations;
+        }
+
+        public Map<String, Coordinate> getTerminals() {
+            return terminals;
+        }
+
+        // Dock ids at the terminal; unknown terminals map to the default one.
+        public List<String> docks(String terminal) {
+            return docks.get(terminalName(terminal));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.DockAvailability;
+import com.airflow.centralbackend.dto.DockResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns trucks to airside docks in time slots, picking the dock of the terminal
+ * that frees up first so trucks queue as little as possible.
+ *
+ * Each terminal's docks come from the DestinationRegistry. Every dock keeps its
+ * bookings in a TreeMap keyed by start time, so finding the earliest window that
+ * fits and listing free windows only touch the bookings around the requested
+ * time. ReservationService confirms the chosen dock upstream; if the airport hands
+ * out a different one, confirm() moves the booking there. All bookings share one
+ * lock, so moving an assignment between terminals can't deadlock.
+ */
+@Service
+public class DockSchedulerService {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+
+    @Autowired
+    private DestinationRegistry destinationRegistry;
+
+    @Value("${airflow.docks.slot-minutes:15}")
+    private int slotMinutes;
+
+    @Value("${airflow.docks.dwell-minutes:45}")
+    private int dwellMinutes;
+
+    private final Object lock = new Object();
+    private final Map<String, Terminal> terminals = new LinkedHashMap<>();
+    // Written under lock; read without it by getBooking.
+    private final ConcurrentHashMap<String, DockBooking> bookingsByAssignment = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        DestinationRegistry.Airport airport = destinationRegistry.airport();
+        for (Map.Entry<String, Coordinate> entry : airport.getTerminals().entrySet()) {
+            Terminal terminal = new Terminal(entry.getKey(), entry.getValue());
+            for (String dockId : airport.docks(entry.getKey())) {
+                terminal.docks.put(dockId, new Dock(dockId));
+            }
+            terminals.put(entry.getKey(), terminal);
+        }
+    }
+
+    /**
+     * Dock-side location of a terminal; unknown terminals map to the registry's default one.
+     */
+    public Coordinate terminalLocation(String terminal) {
+        return terminal(terminal).location;
+    }
+
+    /**
+     * Books the terminal's dock with the earliest free window starting no earlier
+     * than arrival. Repeated calls for the same assignment return its booking unless
+     * the terminal changed or the arrival moved by a slot or more.
+     */
+    public DockBooking assign(String assignmentId, String terminalName, LocalDateTime arrival) {
+        Terminal terminal = terminal(terminalName);
+        LocalDateTime desired = roundUp(arrival);
+        Duration dwell = Duration.ofMinutes(dwellMinutes);
+        synchronized (lock) {
+            DockBooking held = bookingsByAssignment.get(assignmentId);
+            if (held != null) {
+                if (held.terminal.equals(terminal.name)
+                        && Math.abs(Duration.between(held.requested, desired).toMinutes()) < slotMinutes) {
+                    return held;
+                }
+                unbook(held);
+            }
+            prune(LocalDateTime.now(ZONE));
+            Dock best = null;
+            LocalDateTime bestStart = null;
+            for (Dock dock : terminal.docks.values()) {
+                LocalDateTime start = dock.earliestStart(desired, dwell);
+                if (bestStart == null || start.isBefore(bestStart)) {
+                    best = dock;
+                    bestStart = start;
+                }
+            }
+            return book(terminal, best, assignmentId, terminal.location, desired, bestStart);
+        }
+    }
+
+    /**
+     * Records the upstream reservation for an assignment's booking: its dock-side
+     * location, and a move to the airport's dock if it isn't the one we picked.
+     * Returns null if the booking was released in the meantime.
+     */
+    public DockBooking confirm(String assignmentId, DockResponse reserved) {
+        synchronized (lock) {
+            DockBooking held = bookingsByAssignment.get(assignmentId);
+            if (held == null) {
+                return null;
+            }
+            String dockId = reserved.getDockId() != null ? reserved.getDockId() : held.dockId;
+            Coordinate location = reserved.getLocation() != null ? reserved.getLocation() : held.location;
+            if (held.dockId.equals(dockId) && held.location == location) {
+                return held;
+            }
+            Terminal terminal = terminals.get(held.terminal);
+            unbook(held);
+            if (held.dockId.equals(dockId)) {
+                return book(terminal, terminal.docks.get(held.dockId), assignmentId, location, held.requested, held.start);
+            }
+            // The airport's word wins, even for a dock we didn't know about.
+            Dock dock = terminal.docks.computeIfAbsent(dockId, Dock::new);
+            LocalDateTime start = dock.earliestStart(held.requested, Duration.ofMinutes(dwellMinutes));
+            return book(terminal, dock, assignmentId, location, held.requested, start);
+        }
+    }
+
+    public void release(String assignmentId) {
+        synchronized (lock) {
+            DockBooking booking = bookingsByAssignment.get(assignmentId);
+            if (booking != null) {
+                unbook(booking);
+            }
+        }
+    }
+
+    public DockBooking getBooking(String assignmentId) {
+        return bookingsByAssignment.get(assignmentId);
+    }
+
+    /**
+     * Free windows of at least one slot per dock of the terminal between from and to.
+     */
+    public List<DockAvailability> availability(String terminalName, LocalDateTime from, LocalDateTime to) {
+        Terminal terminal = terminal(terminalName);
+        List<DockAvailability> result = new ArrayList<>();
+        synchronized (lock) {
+            for (Dock dock : terminal.docks.values()) {
+                DockAvailability availability = new DockAvailability(dock.dockId, terminal.location);
+                LocalDateTime cursor = from;
+                Map.Entry<LocalDateTime, DockBooking> before = dock.bookings.lowerEntry(from);
+                if (before != null && before.getValue().end.isAfter(cursor)) {
+                    cursor = before.getValue().end;
+                }
+                for (DockBooking booking : dock.bookings.subMap(from, true, to, false).values()) {
+                    addWindow(availability, cursor, booking.start);
+                    if (booking.end.isAfter(cursor)) {
+                        cursor = booking.end;
+                    }
+                }
+                addWindow(availability, cursor, to);
+                result.add(availability);
+            }
+        }
+        return result;
+    }
+
+    private void addWindow(DockAvailability availability, LocalDateTime start, LocalDateTime end) {
+        if (Duration.between(start, end).toMinutes() >= slotMinutes) {
+            availability.addFreeWindow(start.toString(), end.toString());
+        }
+    }
+
+    public void clear() {
+        synchronized (lock) {
+            for (Terminal terminal : terminals.values()) {
+                terminal.docks.values().forEach(dock -> dock.bookings.clear());
+            }
+            bookingsByAssignment.clear();
+        }
+    }
+
+    // Callers hold lock.
+    private DockBooking book(Terminal terminal, Dock dock, String assignmentId, Coordinate location,
+                             LocalDateTime requested, LocalDateTime start) {
+        DockBooking booking = new DockBooking(assignmentId, terminal.name, dock.dockId, location,
+                requested, start, start.plusMinutes(dwellMinutes));
+        dock.bookings.put(start, booking);
+        bookingsByAssignment.put(assignmentId, booking);
+        return booking;
+    }
+
+    // Callers hold lock.
+    private void unbook(DockBooking booking) {
+        if (bookingsByAssignment.remove(booking.assignmentId, booking)) {
+            Dock dock = terminals.get(booking.terminal).docks.get(booking.dockId);
+            if (dock != null) {
+                dock.bookings.remove(booking.start, booking);
+            }
+        }
+    }
+
+    // Bookings that already ended can't conflict with anything new. Callers hold lock.
+    private void prune(LocalDateTime now) {
+        for (Terminal terminal : terminals.values()) {
+            for (Dock dock : terminal.docks.values()) {
+                Iterator<DockBooking> it = dock.bookings.headMap(now).values().iterator();
+                while (it.hasNext()) {
+                    DockBooking booking = it.next();
+                    if (!booking.end.isAfter(now)) {
+                        it.remove();
+                        bookingsByAssignment.remove(booking.assignmentId, booking);
+                    }
+                }
+            }
+        }
+    }
+
+    private Terminal terminal(String name) {
+        return terminals.get(destinationRegistry.airport().terminalName(name));
+    }
+
+    private LocalDateTime roundUp(LocalDateTime time) {
+        LocalDateTime minute = time.truncatedTo(ChronoUnit.MINUTES);
+        if (minute.isBefore(time)) {
+            minute = minute.plusMinutes(1);
+        }
+        int over = minute.getMinute() % slotMinutes;
+        return over == 0 ? minute : minute.plusMinutes(slotMinutes - over);
+    }
+
+    private static final class Terminal {
+        private final String name;
+        private final Coordinate location;
+        // The terminal's docks by id, in registry order.
+        private final Map<String, Dock> docks = new LinkedHashMap<>();
+
+        private Terminal(String name, Coordinate location) {
+            this.name = name;
+            this.location = location;
+        }
+    }
+
+    private static final class Dock {
+        private final String dockId;
+        private final TreeMap<LocalDateTime, DockBooking> bookings = new TreeMap<>();
+
+        private Dock(String dockId) {
+            this.dockId = dockId;
+        }
+
+        // Bookings never overlap, so only the one before and the one after need checking.
+        LocalDateTime earliestStart(LocalDateTime desired, Duration dwell) {
+            LocalDateTime start = desired;
+            while (true) {
+                Map.Entry<LocalDateTime, DockBooking> prev = bookings.floorEntry(start);
+                if (prev != null && prev.getValue().end.isAfter(start)) {
+                    start = prev.getValue().end;
+                    continue;
+                }
+                Map.Entry<LocalDateTime, DockBooking> next = bookings.higherEntry(start);
+                if (next != null && next.getKey().isBefore(start.plus(dwell))) {
+                    start = next.getValue().end;
+                    continue;
+                }
+                return start;
+            }
+        }
+    }
+
+    /**
+     * One assignment's dock window.
+     */
+    public static final class DockBooking {
+        private final String assignmentId;
+        private final String terminal;
+        private final String dockId;
+        private final Coordinate location;
+        private final LocalDateTime requested;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        private DockBooking(String assignmentId, String terminal, String dockId, Coordinate location,
+                            LocalDateTime requested, LocalDateTime start, LocalDateTime end) {
+            this.assignmentId = assignmentId;
+            this.terminal = terminal;
+            this.dockId = dockId;
+            this.location = location;
+            this.requested = requested;
+            this.start = start;
+            this.end = end;
+        }
+
+        public String getAssignmentId() {
+            return assignmentId;
+        }
+
+        public String getTerminal() {
+            return terminal;
+        }
+
+        public String getDockId() {
+            return dockId;
+        }
+
+        public Coordinate getLocation() {
+            return location;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+    }
+}
@@ -0,0 +1,389 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.RouteGeometry;
+import com.airflow.centralbackend.Model.util.GeoUtils;
+import com.airflow.centralbackend.dto.Route;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Where every active truck is right now: position, assignment, progress along
+ * its route and ETA, kept in memory and fed by the location streams.
+ *
+ * Each truck's state is an immutable TruckState behind an AtomicReference and is
+ * replaced by CAS, so updates take no lock and readers always see a whole state.
+ * A grid of cells (truck ids per cell) answers bounding-box and nearest-N
+ * queries without looking at every truck. Cell membership may briefly lag a
+ * move; queries always check the truck's current position.
+ */
+@Service
+public class FleetStateService {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+    // Below this the observed speed says nothing useful about the ETA.
+    private static final double MIN_MOVING_KMH = 5.0;
+    private static final double SPEED_SMOOTHING = 0.3;
+
+    @Value("${airflow.fleet.cell-degrees:0.01}")
+    private double cellDegrees;
+
+    @Value("${airflow.fleet.stale-after-ms:1800000}")
+    private long staleAfterMs;
+
+    @Value("${airflow.fleet.max-search-rings:50}")
+    private int maxSearchRings;
+
+    private final ConcurrentHashMap<String, AtomicReference<TruckState>> trucks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * Records a truck's position and recomputes its route progress and ETA.
+     */
+    public TruckState updatePosition(String truckId, String assignmentId, double latitude, double longitude) {
+        long now = System.currentTimeMillis();
+        return update(truckId, prev -> (prev != null ? prev : TruckState.initial(truckId))
+                .moved(assignmentId, latitude, longitude, now, cellKey(latitude, longitude)));
+    }
+
+    /**
+     * Attaches the route the truck is now driving; progress is measured along its geometry.
+     */
+    public TruckState assignRoute(String truckId, String assignmentId, Route route) {
+        return update(truckId, prev -> (prev != null ? prev : TruckState.initial(truckId)).routed(assignmentId, route));
+    }
+
+    public void remove(String truckId) {
+        AtomicReference<TruckState> ref = truckId == null ? null : trucks.remove(truckId);
+        TruckState state = ref != null ? ref.get() : null;
+        if (state != null && state.hasPosition()) {
+            leaveCell(state.cell, truckId, null);
+        }
+    }
+
+    public TruckState get(String truckId) {
+        AtomicReference<TruckState> ref = truckId == null ? null : trucks.get(truckId);
+        return ref != null ? ref.get() : null;
+    }
+
+    public List<TruckState> getAll() {
+        List<TruckState> all = new ArrayList<>(trucks.size());
+        for (AtomicReference<TruckState> ref : trucks.values()) {
+            all.add(ref.get());
+        }
+        return all;
+    }
+
+    /**
+     * Trucks whose current position is inside the box.
+     */
+    public List<TruckState> inBoundingBox(double minLat, double minLon, double maxLat, double maxLon) {
+        int minRow = gridIndex(minLat);
+        int maxRow = gridIndex(maxLat);
+        int minCol = gridIndex(minLon);
+        int maxCol = gridIndex(maxLon);
+        List<TruckState> found = new ArrayList<>();
+        if ((long) (maxRow - minRow + 1) * (maxCol - minCol + 1) > cells.size()) {
+            // A box covering more cells than are occupied: walking the trucks is cheaper.
+            for (AtomicReference<TruckState> ref : trucks.values()) {
+                TruckState s = ref.get();
+                if (s.hasPosition() && s.inside(minLat, minLon, maxLat, maxLon)) {
+                    found.add(s);
+                }
+            }
+            return found;
+        }
+        Set<String> seen = new HashSet<>();
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                Set<String> ids = cells.get(GeoUtils.cellKey(r, c));
+                if (ids == null) {
+                    continue;
+                }
+                for (String id : ids) {
+                    TruckState s = get(id);
+                    if (s != null && s.hasPosition() && s.inside(minLat, minLon, maxLat, maxLon) && seen.add(id)) {
+                        found.add(s);
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The n trucks closest to the point, nearest first. Searches outward ring by
+     * ring and stops once nothing in an unsearched ring could be closer.
+     */
+    public List<TruckState> nearest(double latitude, double longitude, int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+        int row = gridIndex(latitude);
+        int col = gridIndex(longitude);
+        // Lower bound on the distance to anything outside ring r (longitude degrees are the shorter side).
+        double ringKm = cellDegrees * 111.32 * Math.cos(Math.toRadians(Math.min(Math.abs(latitude), 89)));
+        Map<String, Double> candidates = new HashMap<>();
+        for (int ring = 0; ring <= maxSearchRings; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = col - ring; c <= col + ring; c++) {
+                    if (Math.max(Math.abs(r - row), Math.abs(c - col)) != ring) {
+                        continue;
+                    }
+                    Set<String> ids = cells.get(GeoUtils.cellKey(r, c));
+                    if (ids != null) {
+                        for (String id : ids) {
+                            TruckState s = get(id);
+                            if (s != null && s.hasPosition()) {
+                                candidates.put(id, GeoUtils.distanceKm(latitude, longitude, s.latitude, s.longitude));
+                            }
+                        }
+                    }
+                }
+            }
+            if (candidates.size() >= n && kthSmallest(candidates.values(), n) <= ring * ringKm) {
+                return closest(candidates, n);
+            }
+        }
+        // Sparse fleet far from the point: fall back to every truck.
+        for (AtomicReference<TruckState> ref : trucks.values()) {
+            TruckState s = ref.get();
+            if (s.hasPosition()) {
+                candidates.put(s.truckId, GeoUtils.distanceKm(latitude, longitude, s.latitude, s.longitude));
+            }
+        }
+        return closest(candidates, n);
+    }
+
+    private static double kthSmallest(Collection<Double> values, int k) {
+        PriorityQueue<Double> largest = new PriorityQueue<>(Comparator.reverseOrder());
+        for (double v : values) {
+            largest.add(v);
+            if (largest.size() > k) {
+                largest.poll();
+            }
+        }
+        return largest.peek();
+    }
+
+    private List<TruckState> closest(Map<String, Double> candidates, int n) {
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(candidates.entrySet());
+        sorted.sort(Map.Entry.comparingByValue());
+        List<TruckState> result = new ArrayList<>(Math.min(n, sorted.size()));
+        for (Map.Entry<String, Double> e : sorted) {
+            TruckState s = get(e.getKey());
+            if (s != null) {
+                result.add(s);
+                if (result.size() == n) {
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Drops trucks that haven't reported for a while and cell entries left behind by moves.
+     */
+    @Scheduled(fixedDelayString = "${airflow.fleet.purge-interval-ms:60000}")
+    public void purgeStale() {
+        long cutoff = System.currentTimeMillis() - staleAfterMs;
+        for (Map.Entry<String, AtomicReference<TruckState>> e : trucks.entrySet()) {
+            if (e.getValue().get().updatedAt < cutoff && trucks.remove(e.getKey(), e.getValue())) {
+                TruckState last = e.getValue().get();
+                if (last.hasPosition()) {
+                    leaveCell(last.cell, e.getKey(), null);
+                }
+            }
+        }
+        for (Map.Entry<Long, Set<String>> cell : cells.entrySet()) {
+            for (String id : cell.getValue()) {
+                TruckState s = get(id);
+                if (s == null || !s.hasPosition() || s.cell != cell.getKey()) {
+                    leaveCell(cell.getKey(), id, trucks.get(id));
+                }
+            }
+        }
+    }
+
+    private TruckState update(String truckId, UnaryOperator<TruckState> change) {
+        AtomicReference<TruckState> ref = trucks.computeIfAbsent(truckId, id -> new AtomicReference<>());
+        while (true) {
+            TruckState prev = ref.get();
+            TruckState next = change.apply(prev);
+            if (ref.compareAndSet(prev, next)) {
+                if (next.hasPosition()) {
+                    cells.computeIfAbsent(next.cell, k -> ConcurrentHashMap.newKeySet()).add(truckId);
+                    if (prev != null && prev.hasPosition() && prev.cell != next.cell) {
+                        leaveCell(prev.cell, truckId, ref);
+                    }
+                }
+                return next;
+            }
+        }
+    }
+
+    // Removes the truck from a cell; if a concurrent update has meanwhile put it back
+    // in that cell, the entry is restored so it never goes missing.
+    private void leaveCell(long cell, String truckId, AtomicReference<TruckState> ref) {
+        Set<String> ids = cells.get(cell);
+        if (ids == null) {
+            return;
+        }
+        ids.remove(truckId);
+        TruckState latest = ref != null ? ref.get() : null;
+        if (latest != null && latest.hasPosition() && latest.cell == cell) {
+            ids.add(truckId);
+        }
+    }
+
+    private int gridIndex(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private long cellKey(double lat, double lon) {
+        return GeoUtils.cellKey(gridIndex(lat), gridIndex(lon));
+    }
+
+    /**
+     * One truck's state at a point in time. Never mutated; updates build a new one.
+     */
+    public static final class TruckState {
+        private final String truckId;
+        private final String assignmentId;
+        private final double latitude;
+        private final double longitude;
+        private final long updatedAt;
+        private final long cell;
+        private final double speedKmh;
+        private final RouteGeometry geometry;
+        private final double routeSpeedKmh;
+        private final double alongKm;
+        private final double remainingKm;
+        private final double offRouteKm;
+        private final long etaMillis;
+
+        private TruckState(String truckId, String assignmentId, double latitude, double longitude, long updatedAt,
+                           long cell, double speedKmh, RouteGeometry geometry, double routeSpeedKmh,
+                           double alongKm, double remainingKm, double offRouteKm, long etaMillis) {
+            this.truckId = truckId;
+            this.assignmentId = assignmentId;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.updatedAt = updatedAt;
+            this.cell = cell;
+            this.speedKmh = speedKmh;
+            this.geometry = geometry;
+            this.routeSpeedKmh = routeSpeedKmh;
+            this.alongKm = alongKm;
+            this.remainingKm = remainingKm;
+            this.offRouteKm = offRouteKm;
+            this.etaMillis = etaMillis;
+        }
+
+        static TruckState initial(String truckId) {
+            return new TruckState(truckId, null, Double.NaN, Double.NaN, 0, 0, 0, null, 0, 0, 0, 0, 0);
+        }
+
+        TruckState moved(String assignment, double lat, double lon, long now, long newCell) {
+            double speed = speedKmh;
+            if (hasPosition() && now > updatedAt) {
+                double observed = GeoUtils.distanceKm(latitude, longitude, lat, lon) / ((now - updatedAt) / 3_600_000.0);
+                speed = speedKmh == 0 ? observed : speedKmh + SPEED_SMOOTHING * (observed - speedKmh);
+            }
+            return withProgress(assignment != null ? assignment : assignmentId, lat, lon, now, newCell, speed,
+                    geometry, routeSpeedKmh);
+        }
+
+        TruckState routed(String assignment, Route route) {
+            RouteGeometry routeGeometry = route != null ? route.getGeometry() : null;
+            double routeSpeed = route != null && route.getEstimatedTimeMinutes() > 0
+                    ? route.getTotalDistanceKm() / (route.getEstimatedTimeMinutes() / 60.0) : 0;
+            return withProgress(assignment != null ? assignment : assignmentId, latitude, longitude, updatedAt, cell,
+                    speedKmh, routeGeometry, routeSpeed);
+        }
+
+        private TruckState withProgress(String assignment, double lat, double lon, long at, long newCell,
+                                        double speed, RouteGeometry routeGeometry, double routeSpeed) {
+            double along = 0;
+            double remaining = 0;
+            double off = 0;
+            long eta = 0;
+            if (routeGeometry != null && routeGeometry.size() >= 2 && !Double.isNaN(lat)) {
+                RouteGeometry.Snap snap = routeGeometry.snap(lat, lon);
+                along = snap.getAlongKm();
+                off = snap.getOffRouteKm();
+                remaining = Math.max(0, routeGeometry.totalKm() - along);
+                // Observed speed when the truck is moving, else the route's planned average.
+                double etaSpeed = speed >= MIN_MOVING_KMH ? speed : routeSpeed;
+                if (etaSpeed > 0) {
+                    eta = at + (long) (remaining / etaSpeed * 3_600_000);
+                }
+            }
+            return new TruckState(truckId, assignment, lat, lon, at, newCell, speed, routeGeometry, routeSpeed,
+                    along, remaining, off, eta);
+        }
+
+        boolean hasPosition() {
+            return !Double.isNaN(latitude);
+        }
+
+        boolean inside(double minLat, double minLon, double maxLat, double maxLon) {
+            return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+        }
+
+        public String getTruckId() {
+            return truckId;
+        }
+
+        public String getAssignmentId() {
+            return assignmentId;
+        }
+
+        public Double getLatitude() {
+            return hasPosition() ? latitude : null;
+        }
+
+        public Double getLongitude() {
+            return hasPosition() ? longitude : null;
+        }
+
+        public String getUpdatedAt() {
+            return updatedAt == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(updatedAt), ZONE).toString();
+        }
+
+        public double getSpeedKmh() {
+            return speedKmh;
+        }
+
+        public double getProgressKm() {
+            return alongKm;
+        }
+
+        public double getRemainingKm() {
+            return remainingKm;
+        }
+
+        public double getOffRouteKm() {
+            return offRouteKm;
+        }
+
+        public String getEstimatedArrival() {
+            return etaMillis == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(etaMillis), ZONE).toString();
+        }
+
+        @JsonIgnore
+        public RouteGeometry getGeometry() {
+            return geometry;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.FlighInfoResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Flight info cache keyed by flight number. Many assignments share a flight, and
+ * schedules change slowly compared to how often drivers refresh.
+ *
+ * - Fresh entries (younger than the TTL) are served directly.
+ * - Entries past the TTL but inside the stale window are served immediately while
+ *   one background refresh runs.
+ * - Concurrent misses for the same flight share a single upstream call; each
+ *   caller waits at most load-timeout-ms for it.
+ */
+@Service
+public class FlightInfoCacheService {
+
+    @Autowired
+    private MockTransportationController mockController;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    @Value("${airflow.flight-cache.ttl-seconds:120}")
+    private long ttlSeconds;
+
+    @Value("${airflow.flight-cache.stale-seconds:900}")
+    private long staleSeconds;
+
+    @Value("${airflow.flight-cache.load-timeout-ms:5000}")
+    private long loadTimeoutMs;
+
+    private final ConcurrentHashMap<String, CachedFlight> cache = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, CompletableFuture<FlighInfoResponse>> inFlight = new ConcurrentHashMap<>();
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    public FlighInfoResponse get(String token, String flightNumber) {
+        long now = System.currentTimeMillis();
+        CachedFlight entry = cache.get(flightNumber);
+        if (entry != null) {
+            long age = now - entry.fetchedAt;
+            if (age < ttlSeconds * 1000) {
+                metrics.recordHit();
+                return entry.info;
+            }
+            if (age < (ttlSeconds + staleSeconds) * 1000) {
+                metrics.recordStaleHit();
+                load(token, flightNumber);
+                return entry.info;
+            }
+            if (cache.remove(flightNumber, entry)) {
+                metrics.recordEvictions(1);
+            }
+        }
+        metrics.recordMiss();
+        try {
+            return load(token, flightNumber).get(loadTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Only this caller gives up; the fetch still fills the cache when it returns.
+            throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                    "Flight info for " + flightNumber + " timed out after " + loadTimeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    public void invalidate(String flightNumber) {
+        if (cache.remove(flightNumber) != null) {
+            metrics.recordInvalidations(1);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return metrics.snapshot(cache.size());
+    }
+
+    // Starts (or joins) the single upstream fetch for this flight.
+    private CompletableFuture<FlighInfoResponse> load(String token, String flightNumber) {
+        CompletableFuture<FlighInfoResponse> created = new CompletableFuture<>();
+        CompletableFuture<FlighInfoResponse> existing = inFlight.putIfAbsent(flightNumber, created);
+        if (existing != null) {
+            return existing;
+        }
+        outboundExecutor.execute(() -> {
+            try {
+                FlighInfoResponse info = mockController.fetchFlightInfo(token, flightNumber);
+                if (info != null) {
+                    cache.put(flightNumber, new CachedFlight(info, System.currentTimeMillis()));
+                }
+                created.complete(info);
+            } catch (Throwable t) {
+                // A failed background refresh leaves the stale entry in place.
+                System.out.println("Flight info fetch failed for " + flightNumber + ": " + t.getMessage());
+                created.completeExceptionally(t);
+            } finally {
+                inFlight.remove(flightNumber, created);
+            }
+        });
+        return created;
+    }
+
+    private static final class CachedFlight {
+        private final FlighInfoResponse info;
+        private final long fetchedAt;
+
+        private CachedFlight(FlighInfoResponse info, long fetchedAt) {
+            this.info = info;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+}
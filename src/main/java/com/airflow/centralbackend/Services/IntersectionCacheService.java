@@ -5,32 +5,34 @@ import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 @Service
 public class IntersectionCacheService {
 
-    // Map keyed by trip ID; each value is a thread‑safe queue of Intersection objects.
-    private final ConcurrentHashMap<String, Queue<Intersection>> intersectionCache = new ConcurrentHashMap<>();
+    // Map keyed by trip ID; each value is an immutable, position-searchable index of that trip's intersections.
+    private final ConcurrentHashMap<String, TripIntersectionIndex> intersectionCache = new ConcurrentHashMap<>();
 
-    // Save intersections for a trip.
+    // Save intersections for a trip, replacing any previous route's intersections.
     public void putIntersections(String tripId, List<Intersection> intersections) {
-        intersectionCache.put(tripId, new ConcurrentLinkedQueue<>(intersections));
+        intersectionCache.put(tripId, new TripIntersectionIndex(intersections));
     }
 
-    // Retrieve the next batch (e.g. 3) intersections for a trip.
+    // Retrieve the first batch (e.g. 3) intersections of the trip's route. Does not consume them.
     public List<Intersection> getNextIntersections(String tripId, int batchSize) {
-        Queue<Intersection> queue = intersectionCache.get(tripId);
-        if (queue == null) {
+        TripIntersectionIndex index = intersectionCache.get(tripId);
+        if (index == null) {
             return Collections.emptyList();
         }
-        List<Intersection> batch = new ArrayList<>();
-        for (int i = 0; i < batchSize; i++) {
-            Intersection inter = queue.poll();
-            if (inter == null) break;
-            batch.add(inter);
+        return index.first(batchSize);
+    }
+
+    // Retrieve the next batch of intersections ahead of the truck's current position.
+    public List<Intersection> getIntersectionsAhead(String tripId, double lat, double lon, int batchSize) {
+        TripIntersectionIndex index = intersectionCache.get(tripId);
+        if (index == null) {
+            return Collections.emptyList();
         }
-        return batch;
+        return index.ahead(lat, lon, batchSize);
     }
 
     // Remove all intersections for a trip from the cache.
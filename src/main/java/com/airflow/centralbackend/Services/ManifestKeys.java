@@ -0,0 +1,51 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.Manifest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Keys for manifests, since the upstream doesn't give them ids.
+ *
+ * The identity key (company, dispatcher, flight, task type) says which job a
+ * manifest is and survives intra-day edits; the content hash covers everything
+ * else (pickup location and time, priority) and tells whether it changed.
+ */
+public final class ManifestKeys {
+
+    private ManifestKeys() {}
+
+    public static String identityKey(Manifest m) {
+        return String.join("|",
+                String.valueOf(m.getCompany_name()),
+                String.valueOf(m.getDispatcher_name()),
+                String.valueOf(m.getFlight_number()),
+                String.valueOf(m.getTask_type()));
+    }
+
+    /**
+     * Identity keys for a list of manifests, in order. Manifests with the same
+     * identity get an occurrence suffix so they stay distinct.
+     */
+    public static List<String> identityKeys(List<Manifest> manifests) {
+        Map<String, Integer> seen = new HashMap<>();
+        List<String> keys = new ArrayList<>(manifests.size());
+        for (Manifest m : manifests) {
+            String key = identityKey(m);
+            int occurrence = seen.merge(key, 1, Integer::sum);
+            keys.add(occurrence == 1 ? key : key + "#" + occurrence);
+        }
+        return keys;
+    }
+
+    public static String contentHash(Manifest m) {
+        Coordinate loc = m.getLocation();
+        String content = String.join("|",
+                loc == null ? "null" : Math.round(loc.getLatitude() * 1e6) + "," + Math.round(loc.getLongitude() * 1e6),
+                String.valueOf(m.getPickup_time()),
+                String.valueOf(m.getPriority()));
+        return UUID.nameUUIDFromBytes(content.getBytes(StandardCharsets.UTF_8)).toString();
+    }
+}
@@ -1,51 +1,38 @@
 package com.airflow.centralbackend.Services;
 
 import com.airflow.centralbackend.Model.ParkingSlot;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Component
 public class MockAirportClient {
-    private List<ParkingSlot> mockSlots = new ArrayList<>();
-    private Random random = new Random();
 
-    public MockAirportClient() {
-        // Sample data: 3 gates each with 2 slots (total 6 slots)
-        mockSlots.add(new ParkingSlot("SLOT-A1", "GateA"));
-        mockSlots.add(new ParkingSlot("SLOT-A2", "GateA"));
-        mockSlots.add(new ParkingSlot("SLOT-B1", "GateB"));
-        mockSlots.add(new ParkingSlot("SLOT-B2", "GateB"));
-        mockSlots.add(new ParkingSlot("SLOT-C1", "GateC"));
-        mockSlots.add(new ParkingSlot("SLOT-C2", "GateC"));
-    }
+    // Slot state lives in the allocator; see ParkingSlotAllocator.
+    @Autowired
+    private ParkingSlotAllocator slotAllocator;
 
     /**
      * Returns all available (non-reserved) parking slots.
      */
     public List<ParkingSlot> getAvailableSlots() {
-        List<ParkingSlot> available = new ArrayList<>();
-        for (ParkingSlot slot : mockSlots) {
-            if (!slot.isReserved()) {
-                available.add(slot);
-            }
-        }
-        return available;
+        return slotAllocator.getAvailableSlots();
     }
 
     /**
      * Reserves the slot with the given ID if it is available.
      */
     public ParkingSlot reserveSlot(String slotId) {
-        for (ParkingSlot slot : mockSlots) {
-            if (slot.getSlotId().equals(slotId) && !slot.isReserved()) {
-                slot.setReserved(true);
-                return slot;
-            }
-        }
-        return null;
+        return slotAllocator.reserve(slotId);
+    }
+
+    /**
+     * Frees the slot. Returns false if it wasn't reserved.
+     */
+    public boolean releaseSlot(String slotId) {
+        return slotAllocator.release(slotId);
     }
 
     /**
@@ -55,29 +42,12 @@ public class MockAirportClient {
      */
     public ParkingSlot verifyParkingSlot(String slotId) {
         // 80% chance the slot remains valid.
-        if (random.nextInt(100) < 80) {
-            for (ParkingSlot slot : mockSlots) {
-                if (slot.getSlotId().equals(slotId)) {
-                    return slot;
-                }
-            }
-            return null;
-        } else {
-            // Simulate slot becoming unavailable.
-            for (ParkingSlot slot : mockSlots) {
-                if (slot.getSlotId().equals(slotId)) {
-                    slot.setReserved(false); // release the current slot.
-                    break;
-                }
-            }
-            List<ParkingSlot> available = getAvailableSlots();
-            if (!available.isEmpty()) {
-                ParkingSlot newSlot = available.get(0);
-                newSlot.setReserved(true);
-                return newSlot;
-            }
-            return null; // no available slot found.
+        if (ThreadLocalRandom.current().nextInt(100) < 80) {
+            return slotAllocator.get(slotId);
         }
+        // Simulate slot becoming unavailable.
+        slotAllocator.release(slotId);
+        return slotAllocator.reserveAny(); // null when no available slot is found.
     }
 
     public void confirmArrival(String truckId) {
@@ -2,23 +2,34 @@ package com.airflow.centralbackend.Services;
 
 import com.airflow.centralbackend.Model.Intersection;
 import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.RouteGeometry;
 import com.airflow.centralbackend.Model.Trip;
 import com.airflow.centralbackend.dto.Coordinate;
 import com.airflow.centralbackend.dto.Route;
 import org.springframework.stereotype.Component;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Random;
 
 @Component
 public class MockOSMClient {
+    // Candidate nodes farther than this from the route polyline are not on the route.
+    private static final double MATCH_TOLERANCE_KM = 0.5;
+
     private Random random = new Random();
 
     /**
      * Simulates fetching a list of intersections between the start and end locations.
-     * Here, we generate a fixed number (e.g., 10) intersections with slight random offsets.
+     * When the route's polyline has been decoded, candidate nodes are placed around
+     * evenly spaced points along the real geometry and matched back onto it;
+     * otherwise we fall back to slight random offsets along the straight line.
      */
     public List<Intersection> getIntersections(Route trip, Coordinate start, Location end, int totalCount) {
+        RouteGeometry geometry = trip != null ? trip.getGeometry() : null;
+        if (geometry != null && geometry.size() >= 2) {
+            return matchAlongRoute(geometry, totalCount);
+        }
         List<Intersection> intersections = new ArrayList<>();
         double latStep = (end.getLatitude() - start.getLatitude()) / (totalCount + 1);
         double lonStep = (end.getLongitude() - start.getLongitude()) / (totalCount + 1);
@@ -34,4 +45,28 @@ public class MockOSMClient {
         }
         return intersections;
     }
+
+    // Snaps jittered candidate nodes onto the route and numbers them by distance along it.
+    private List<Intersection> matchAlongRoute(RouteGeometry geometry, int totalCount) {
+        double step = geometry.totalKm() / (totalCount + 1);
+        List<double[]> matched = new ArrayList<>();
+        for (int i = 1; i <= totalCount; i++) {
+            Location onRoute = geometry.pointAt(step * i);
+            double lat = onRoute.getLatitude() + (random.nextDouble() - 0.5) * 0.001;
+            double lon = onRoute.getLongitude() + (random.nextDouble() - 0.5) * 0.001;
+            RouteGeometry.Snap snap = geometry.snap(lat, lon);
+            if (snap.getOffRouteKm() <= MATCH_TOLERANCE_KM) {
+                matched.add(new double[]{snap.getAlongKm(), lat, lon});
+            }
+        }
+        matched.sort(Comparator.comparingDouble(m -> m[0]));
+        List<Intersection> intersections = new ArrayList<>(matched.size());
+        for (int i = 0; i < matched.size(); i++) {
+            Intersection intersection = new Intersection();
+            intersection.setSequenceNumber(i + 1);
+            intersection.setLocation(new Location(matched.get(i)[1], matched.get(i)[2]));
+            intersections.add(intersection);
+        }
+        return intersections;
+    }
 }
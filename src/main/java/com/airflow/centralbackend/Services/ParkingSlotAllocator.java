@@ -0,0 +1,250 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.ParkingSlot;
+import com.airflow.centralbackend.Repository.ParkingSlotRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Airport parking slots with lock-free claim and release.
+ *
+ * Each gate keeps a bitset of reserved slots. A reservation is a CAS that sets
+ * one bit, so two trucks can never hold the same slot. Reserving any free slot
+ * starts at the next gate in round-robin order, which spreads trucks across gates.
+ *
+ * Slots are loaded from ParkingSlotRepository at startup and reservation changes
+ * are written back in the background. When the table is empty the built-in
+ * sample slots are used, in memory only.
+ */
+@Service
+public class ParkingSlotAllocator {
+
+    @Autowired
+    private ParkingSlotRepository parkingSlotRepository;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    private Gate[] gates = new Gate[0];
+    private Map<String, SlotRef> slotsById = Collections.emptyMap();
+    private boolean persistent;
+    private final AtomicInteger nextGate = new AtomicInteger();
+
+    @PostConstruct
+    public void load() {
+        List<ParkingSlot> slots;
+        try {
+            slots = parkingSlotRepository.findAll();
+        } catch (Exception e) {
+            System.out.println("Parking slots: repository unavailable, using sample slots: " + e.getMessage());
+            slots = List.of();
+        }
+        persistent = !slots.isEmpty();
+        init(persistent ? slots : sampleSlots());
+        System.out.println("Parking slots: " + slotsById.size() + " slots across " + gates.length + " gates"
+                + (persistent ? "" : " (in memory)"));
+    }
+
+    // Sample data: 3 gates each with 2 slots (total 6 slots)
+    private static List<ParkingSlot> sampleSlots() {
+        return List.of(
+                new ParkingSlot("SLOT-A1", "GateA"),
+                new ParkingSlot("SLOT-A2", "GateA"),
+                new ParkingSlot("SLOT-B1", "GateB"),
+                new ParkingSlot("SLOT-B2", "GateB"),
+                new ParkingSlot("SLOT-C1", "GateC"),
+                new ParkingSlot("SLOT-C2", "GateC"));
+    }
+
+    private void init(List<ParkingSlot> slots) {
+        Map<String, List<ParkingSlot>> byGate = new LinkedHashMap<>();
+        for (ParkingSlot slot : slots) {
+            byGate.computeIfAbsent(slot.getGateId(), g -> new ArrayList<>()).add(slot);
+        }
+        Gate[] built = new Gate[byGate.size()];
+        Map<String, SlotRef> index = new HashMap<>();
+        int g = 0;
+        for (List<ParkingSlot> gateSlots : byGate.values()) {
+            Gate gate = new Gate(gateSlots.toArray(new ParkingSlot[0]));
+            for (int i = 0; i < gate.slots.length; i++) {
+                if (gate.slots[i].isReserved()) {
+                    gate.claim(i);
+                }
+                index.put(gate.slots[i].getSlotId(), new SlotRef(gate, i));
+            }
+            built[g++] = gate;
+        }
+        gates = built;
+        slotsById = index;
+    }
+
+    /**
+     * Reserves any free slot, starting at the next gate in round-robin order.
+     * Returns null when every slot is taken.
+     */
+    public ParkingSlot reserveAny() {
+        Gate[] all = gates;
+        if (all.length == 0) {
+            return null;
+        }
+        int start = Math.floorMod(nextGate.getAndIncrement(), all.length);
+        for (int n = 0; n < all.length; n++) {
+            Gate gate = all[(start + n) % all.length];
+            int i = gate.claimAny();
+            if (i >= 0) {
+                return reserved(gate, i);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reserves the slot with the given ID if it is available, otherwise returns null.
+     */
+    public ParkingSlot reserve(String slotId) {
+        SlotRef ref = slotId == null ? null : slotsById.get(slotId);
+        if (ref == null || !ref.gate.claim(ref.index)) {
+            return null;
+        }
+        return reserved(ref.gate, ref.index);
+    }
+
+    /**
+     * Frees the slot. Returns false if it wasn't reserved.
+     */
+    public boolean release(String slotId) {
+        SlotRef ref = slotId == null ? null : slotsById.get(slotId);
+        if (ref == null || !ref.gate.free(ref.index)) {
+            return false;
+        }
+        ParkingSlot slot = ref.gate.slots[ref.index];
+        slot.setReserved(false);
+        persist(ref);
+        return true;
+    }
+
+    public ParkingSlot get(String slotId) {
+        SlotRef ref = slotId == null ? null : slotsById.get(slotId);
+        return ref == null ? null : ref.gate.slots[ref.index];
+    }
+
+    public List<ParkingSlot> getAvailableSlots() {
+        List<ParkingSlot> available = new ArrayList<>();
+        for (Gate gate : gates) {
+            for (int i = 0; i < gate.slots.length; i++) {
+                if (!gate.isClaimed(i)) {
+                    available.add(gate.slots[i]);
+                }
+            }
+        }
+        return available;
+    }
+
+    public int size() {
+        return slotsById.size();
+    }
+
+    private ParkingSlot reserved(Gate gate, int index) {
+        ParkingSlot slot = gate.slots[index];
+        slot.setReserved(true);
+        persist(new SlotRef(gate, index));
+        return slot;
+    }
+
+    // Writes the slot's current bit, not the value at call time, so out-of-order
+    // writes still converge on the latest state.
+    private void persist(SlotRef ref) {
+        if (!persistent) {
+            return;
+        }
+        outboundExecutor.execute(() -> {
+            ParkingSlot slot = ref.gate.slots[ref.index];
+            slot.setReserved(ref.gate.isClaimed(ref.index));
+            try {
+                parkingSlotRepository.save(slot);
+            } catch (Exception e) {
+                System.out.println("Parking slot " + slot.getSlotId() + " not persisted: " + e.getMessage());
+            }
+        });
+    }
+
+    private static final class SlotRef {
+        private final Gate gate;
+        private final int index;
+
+        private SlotRef(Gate gate, int index) {
+            this.gate = gate;
+            this.index = index;
+        }
+    }
+
+    /**
+     * One gate's slots and their reserved bits, 64 slots per word.
+     */
+    private static final class Gate {
+        private final ParkingSlot[] slots;
+        private final AtomicLongArray reserved;
+
+        private Gate(ParkingSlot[] slots) {
+            this.slots = slots;
+            this.reserved = new AtomicLongArray((slots.length + 63) / 64);
+        }
+
+        boolean isClaimed(int i) {
+            return (reserved.get(i >>> 6) & (1L << i)) != 0;
+        }
+
+        boolean claim(int i) {
+            int w = i >>> 6;
+            long bit = 1L << i;
+            while (true) {
+                long bits = reserved.get(w);
+                if ((bits & bit) != 0) {
+                    return false;
+                }
+                if (reserved.compareAndSet(w, bits, bits | bit)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean free(int i) {
+            int w = i >>> 6;
+            long bit = 1L << i;
+            while (true) {
+                long bits = reserved.get(w);
+                if ((bits & bit) == 0) {
+                    return false;
+                }
+                if (reserved.compareAndSet(w, bits, bits & ~bit)) {
+                    return true;
+                }
+            }
+        }
+
+        // Lowest free slot, or -1 when the gate is full.
+        int claimAny() {
+            for (int w = 0; w < reserved.length(); w++) {
+                while (true) {
+                    long bits = reserved.get(w);
+                    int i = (w << 6) + Long.numberOfTrailingZeros(~bits);
+                    if (bits == -1L || i >= slots.length) {
+                        break;
+                    }
+                    if (reserved.compareAndSet(w, bits, bits | (1L << i))) {
+                        return i;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.RouteGeometry;
+
+import java.util.Arrays;
+
+/**
+ * Decoder for Google's encoded polyline format (precision 1e-5).
+ * Points are streamed to a sink as fixed-point ints, so decoding a route
+ * allocates nothing per point.
+ */
+public final class PolylineDecoder {
+
+    public interface PointSink {
+        void accept(int latE5, int lonE5);
+    }
+
+    private PolylineDecoder() {}
+
+    /**
+     * Decodes the polyline, handing each point to the sink in order.
+     * Returns the number of points decoded.
+     */
+    public static int decode(CharSequence encoded, PointSink sink) {
+        int length = encoded.length();
+        int index = 0;
+        int lat = 0;
+        int lon = 0;
+        int count = 0;
+        while (index < length) {
+            // Each point is a lat delta followed by a lon delta.
+            for (int coordinate = 0; coordinate < 2; coordinate++) {
+                int result = 0;
+                int shift = 0;
+                int b;
+                do {
+                    if (index >= length) {
+                        throw new IllegalArgumentException("Truncated polyline at index " + index);
+                    }
+                    b = encoded.charAt(index++) - 63;
+                    result |= (b & 0x1f) << shift;
+                    shift += 5;
+                } while (b >= 0x20);
+                int delta = (result & 1) != 0 ? ~(result >> 1) : (result >> 1);
+                if (coordinate == 0) {
+                    lat += delta;
+                } else {
+                    lon += delta;
+                }
+            }
+            sink.accept(lat, lon);
+            count++;
+        }
+        return count;
+    }
+
+    // Decodes straight into a RouteGeometry.
+    public static RouteGeometry decode(CharSequence encoded) {
+        Buffer buffer = new Buffer(Math.max(2, encoded.length() / 4));
+        decode(encoded, buffer);
+        return new RouteGeometry(buffer.lat, buffer.lon, buffer.size);
+    }
+
+    // Growable pair of int arrays.
+    private static final class Buffer implements PointSink {
+        private int[] lat;
+        private int[] lon;
+        private int size;
+
+        private Buffer(int capacity) {
+            lat = new int[capacity];
+            lon = new int[capacity];
+        }
+
+        @Override
+        public void accept(int latE5, int lonE5) {
+            if (size == lat.length) {
+                lat = Arrays.copyOf(lat, size * 2);
+                lon = Arrays.copyOf(lon, size * 2);
+            }
+            lat[size] = latE5;
+            lon[size] = lonE5;
+            size++;
+        }
+    }
+}
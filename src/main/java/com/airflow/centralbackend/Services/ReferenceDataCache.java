@@ -0,0 +1,73 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.Truck;
+import com.airflow.centralbackend.Repository.TruckRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through cache for truck reference data.
+ *
+ * Trucks are loaded at startup and reloaded periodically; this service never
+ * writes them, so the reload is what picks up edits made elsewhere. Misses fall
+ * through to the repository and are cached. Completing a trip resolves its truck
+ * here instead of joining the trucks table.
+ */
+@Service
+public class ReferenceDataCache {
+
+    @Autowired
+    private TruckRepository truckRepository;
+
+    private final ConcurrentHashMap<String, Truck> trucks = new ConcurrentHashMap<>();
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${airflow.reference-cache.refresh-ms:3600000}",
+            initialDelayString = "${airflow.reference-cache.refresh-ms:3600000}")
+    public void refresh() {
+        try {
+            reload(truckRepository.findAll());
+            System.out.println("Reference data: " + trucks.size() + " trucks");
+        } catch (Exception e) {
+            System.out.println("Reference data load failed, serving cached/read-through: " + e.getMessage());
+        }
+    }
+
+    // Puts the loaded rows and drops cached ids that no longer exist.
+    private void reload(List<Truck> rows) {
+        Map<String, Truck> loaded = new LinkedHashMap<>();
+        for (Truck truck : rows) {
+            loaded.put(truck.getTruckId(), truck);
+        }
+        trucks.putAll(loaded);
+        trucks.keySet().retainAll(loaded.keySet());
+    }
+
+    public Optional<Truck> findTruck(String truckId) {
+        if (truckId == null) {
+            return Optional.empty();
+        }
+        Truck cached = trucks.get(truckId);
+        if (cached != null) {
+            metrics.recordHit();
+            return Optional.of(cached);
+        }
+        metrics.recordMiss();
+        Optional<Truck> loaded = truckRepository.findById(truckId);
+        loaded.ifPresent(truck -> trucks.put(truckId, truck));
+        return loaded;
+    }
+
+    public Map<String, Object> getStats() {
+        return metrics.snapshot(trucks.size());
+    }
+}
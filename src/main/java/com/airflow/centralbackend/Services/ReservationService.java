@@ -0,0 +1,173 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.DockResponse;
+import com.airflow.centralbackend.dto.ParkingResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Parking and dock reservations held per assignment.
+ *
+ * DockSchedulerService picks the dock and its time window; that dock is then
+ * reserved upstream. Parking and the dock are each reserved upstream by the first
+ * request for an assignment. Later and concurrent requests share those
+ * reservations, so a driver refreshing the flight info screen doesn't book a new
+ * slot every time; the dock is only reserved again if the scheduler moves the
+ * assignment to another dock. Everything is held until the trip completes or the
+ * assignment is removed.
+ */
+@Service
+public class ReservationService {
+
+    @Autowired
+    private MockTransportationController mockController;
+
+    @Autowired
+    private DockSchedulerService dockScheduler;
+
+    @Value("${mock.api.token}")
+    private String apiToken;
+
+    // How long a request waits on a reservation another request is making upstream.
+    @Value("${airflow.reservations.wait-timeout-ms:5000}")
+    private long waitTimeoutMs;
+
+    private final ConcurrentHashMap<String, CompletableFuture<ParkingResponse>> parking = new ConcurrentHashMap<>();
+    // Upstream dock reservations, keyed by assignment + "@" + terminal + "/" + dock id.
+    private final ConcurrentHashMap<String, CompletableFuture<DockResponse>> docks = new ConcurrentHashMap<>();
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    /**
+     * Returns the parking held for the assignment (reserving it on first use) and
+     * its dock window at the terminal for a truck arriving at the given time.
+     */
+    public Reservation reserve(String assignmentId, String terminal, LocalDateTime arrival) {
+        ParkingResponse held = reserveOnce(parking, assignmentId, () -> mockController.reserveParking(apiToken));
+        DockSchedulerService.DockBooking picked = dockScheduler.assign(assignmentId, terminal, arrival);
+        String key = dockKey(assignmentId, picked.getTerminal(), picked.getDockId());
+        DockResponse reserved = reserveOnce(docks, key,
+                () -> mockController.reserveDock(apiToken, picked.getTerminal(), picked.getDockId()));
+        DockSchedulerService.DockBooking dock = dockScheduler.confirm(assignmentId, reserved);
+        if (dock == null) {
+            throw new IllegalStateException("Assignment " + assignmentId + " was released while reserving its dock");
+        }
+        if (!dock.getDockId().equals(picked.getDockId())) {
+            // The airport gave us another dock; remember it under that dock's key.
+            key = dockKey(assignmentId, dock.getTerminal(), dock.getDockId());
+            docks.put(key, CompletableFuture.completedFuture(reserved));
+        }
+        // Reservations for docks the assignment no longer uses are dropped.
+        String current = key;
+        docks.keySet().removeIf(k -> k.startsWith(assignmentId + "@") && !k.equals(current));
+        return new Reservation(held, dock);
+    }
+
+    // The first caller for a key books upstream; later and concurrent callers share that result.
+    private <T> T reserveOnce(ConcurrentHashMap<String, CompletableFuture<T>> held, String key, Supplier<T> upstream) {
+        while (true) {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            CompletableFuture<T> existing = held.putIfAbsent(key, created);
+            if (existing == null) {
+                metrics.recordMiss();
+                return book(held, key, created, upstream);
+            }
+            try {
+                T reserved = existing.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+                metrics.recordHit();
+                return reserved;
+            } catch (TimeoutException e) {
+                // Only this request gives up; the booking in flight is still shared when it lands.
+                throw new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT,
+                        "Reservation for " + key + " timed out after " + waitTimeoutMs + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            } catch (ExecutionException e) {
+                // The booking this request was waiting on failed; try again.
+                held.remove(key, existing);
+            }
+        }
+    }
+
+    private <T> T book(ConcurrentHashMap<String, CompletableFuture<T>> held, String key,
+                       CompletableFuture<T> created, Supplier<T> upstream) {
+        try {
+            T reserved = upstream.get();
+            created.complete(reserved);
+            System.out.println("Reserved " + describe(reserved) + " for " + key);
+            return reserved;
+        } catch (RuntimeException e) {
+            held.remove(key, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static String describe(Object reserved) {
+        if (reserved instanceof ParkingResponse p) {
+            return "parking " + p.getParkingId();
+        }
+        if (reserved instanceof DockResponse d) {
+            return "dock " + d.getDockId();
+        }
+        return String.valueOf(reserved);
+    }
+
+    private static String dockKey(String assignmentId, String terminal, String dockId) {
+        return assignmentId + "@" + terminal.toLowerCase(Locale.ROOT) + "/" + dockId;
+    }
+
+    public void release(String assignmentId) {
+        if (assignmentId == null) {
+            return;
+        }
+        if (parking.remove(assignmentId) != null) {
+            metrics.recordInvalidations(1);
+        }
+        docks.keySet().removeIf(key -> key.startsWith(assignmentId + "@"));
+        dockScheduler.release(assignmentId);
+    }
+
+    public void clear() {
+        int size = parking.size();
+        parking.clear();
+        docks.clear();
+        dockScheduler.clear();
+        metrics.recordInvalidations(size);
+    }
+
+    // hits = reused parking/dock reservations, misses = upstream bookings, invalidations = releases.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = metrics.snapshot(parking.size());
+        stats.put("docksHeld", docks.size());
+        return stats;
+    }
+
+    public static final class Reservation {
+        private final ParkingResponse parking;
+        private final DockSchedulerService.DockBooking dock;
+
+        private Reservation(ParkingResponse parking, DockSchedulerService.DockBooking dock) {
+            this.parking = parking;
+            this.dock = dock;
+        }
+
+        public ParkingResponse getParking() {
+            return parking;
+        }
+
+        public DockSchedulerService.DockBooking getDock() {
+            return dock;
+        }
+    }
+}
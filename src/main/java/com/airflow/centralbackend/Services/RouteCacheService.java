@@ -0,0 +1,171 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.RouteGeometry;
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.Route;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory cache of Google routes keyed by the origin snapped to a grid cell
+ * plus the destination. Trucks heading to the same few airport destinations
+ * from the same neighbourhood share one route instead of each paying for a
+ * fresh Routes API call. Entries are kept in access order, so once the cache is
+ * full a put drops the least recently used route instead of scanning them all.
+ */
+@Service
+public class RouteCacheService {
+
+    @Value("${airflow.route-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${airflow.route-cache.max-entries:2000}")
+    private int maxEntries;
+
+    // Size of a grid cell in degrees (~0.005 deg is roughly 500 m around DFW).
+    @Value("${airflow.route-cache.grid-degrees:0.005}")
+    private double gridDegrees;
+
+    // Padding (in degrees) around a route's bounding box used when matching traffic incidents.
+    @Value("${airflow.route-cache.incident-padding-degrees:0.01}")
+    private double incidentPaddingDegrees;
+
+    // An incident this close to a cached route's polyline invalidates it.
+    @Value("${airflow.route-cache.incident-radius-km:0.3}")
+    private double incidentRadiusKm;
+
+    // Access-ordered; every read or write goes through synchronized (cache).
+    private final LinkedHashMap<String, CachedRoute> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedRoute> eldest) {
+            if (size() <= maxEntries) {
+                return false;
+            }
+            metrics.recordEvictions(1);
+            return true;
+        }
+    };
+    private final CacheMetrics metrics = new CacheMetrics();
+
+    /**
+     * Returns a copy of the cached route for this origin cell and destination,
+     * or null on a miss or when the entry has expired.
+     */
+    public Route get(Coordinate origin, double destLat, double destLon) {
+        String key = key(origin.getLatitude(), origin.getLongitude(), destLat, destLon);
+        CachedRoute entry;
+        synchronized (cache) {
+            entry = cache.get(key);
+            if (entry != null && entry.isExpired(System.currentTimeMillis())) {
+                cache.remove(key);
+                metrics.recordEvictions(1);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            metrics.recordMiss();
+            return null;
+        }
+        metrics.recordHit();
+        return copyOf(entry.route);
+    }
+
+    public void put(Coordinate origin, double destLat, double destLon, Route route) {
+        String key = key(origin.getLatitude(), origin.getLongitude(), destLat, destLon);
+        CachedRoute entry = new CachedRoute(copyOf(route), origin.getLatitude(), origin.getLongitude(),
+                destLat, destLon, System.currentTimeMillis() + ttlSeconds * 1000);
+        synchronized (cache) {
+            cache.put(key, entry);
+        }
+    }
+
+    /**
+     * Drops every cached route whose corridor covers the given point. Called when
+     * DALI reports an accident so the next truck gets a fresh traffic-aware route.
+     */
+    public int invalidateNear(double lat, double lon) {
+        int removed = 0;
+        synchronized (cache) {
+            for (Iterator<CachedRoute> it = cache.values().iterator(); it.hasNext(); ) {
+                if (it.next().covers(lat, lon, incidentPaddingDegrees, incidentRadiusKm)) {
+                    it.remove();
+                    removed++;
+                }
+            }
+        }
+        metrics.recordInvalidations(removed);
+        return removed;
+    }
+
+    public void clear() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+            cache.clear();
+        }
+        metrics.recordInvalidations(size);
+    }
+
+    public Map<String, Object> getStats() {
+        synchronized (cache) {
+            return metrics.snapshot(cache.size());
+        }
+    }
+
+    private String key(double originLat, double originLon, double destLat, double destLon) {
+        long cellLat = (long) Math.floor(originLat / gridDegrees);
+        long cellLon = (long) Math.floor(originLon / gridDegrees);
+        return cellLat + ":" + cellLon + destinationKey(destLat, destLon);
+    }
+
+    // Destinations are fixed points, so rounding to ~1 m is enough to identify them.
+    private static String destinationKey(double destLat, double destLon) {
+        return "->" + Math.round(destLat * 1e5) + "," + Math.round(destLon * 1e5);
+    }
+
+    // Callers decorate the returned route, so never hand out the cached instance.
+    private static Route copyOf(Route route) {
+        Route copy = new Route(route.getSteps(), route.getTotalDistanceKm(), route.getEstimatedTimeMinutes());
+        copy.setEncodedPolyline(route.getEncodedPolyline());
+        copy.setGeometry(route.getGeometry());
+        return copy;
+    }
+
+    private static final class CachedRoute {
+        private final Route route;
+        private final double minLat;
+        private final double maxLat;
+        private final double minLon;
+        private final double maxLon;
+        private final long expiresAt;
+
+        private CachedRoute(Route route, double originLat, double originLon,
+                            double destLat, double destLon, long expiresAt) {
+            this.route = route;
+            this.minLat = Math.min(originLat, destLat);
+            this.maxLat = Math.max(originLat, destLat);
+            this.minLon = Math.min(originLon, destLon);
+            this.maxLon = Math.max(originLon, destLon);
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        // Cheap bounding-box test first, then the actual polyline when we have it.
+        private boolean covers(double lat, double lon, double padding, double radiusKm) {
+            boolean inBox = lat >= minLat - padding && lat <= maxLat + padding
+                    && lon >= minLon - padding && lon <= maxLon + padding;
+            RouteGeometry geometry = route.getGeometry();
+            if (!inBox || geometry == null || geometry.size() < 2) {
+                return inBox;
+            }
+            return geometry.snap(lat, lon).getOffRouteKm() <= radiusKm;
+        }
+    }
+}
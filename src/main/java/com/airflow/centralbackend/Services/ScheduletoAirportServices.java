@@ -2,33 +2,39 @@ package com.airflow.centralbackend.Services;
 
 import com.airflow.centralbackend.Controller.MockTransportationController;
 import com.airflow.centralbackend.Model.*;
-import com.airflow.centralbackend.Repository.DriverRepository;
-import com.airflow.centralbackend.Repository.TruckRepository;
 import com.airflow.centralbackend.Repository.TripRepository;
 import com.airflow.centralbackend.dto.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.*;
 
 @Service
 public class ScheduletoAirportServices {
-    private static final double NorthEntranceLat = 32.924992;
-    private static final double NorthEntranceLon = -97.042575;
 
+    // Trucks are served from memory; see ReferenceDataCache.
     @Autowired
-    private DriverRepository driverRepository;
+    private ReferenceDataCache referenceDataCache;
 
     @Autowired
-    private TruckRepository truckRepository;
+    private TripRepository tripRepository;
 
     @Autowired
-    private TripRepository tripRepository;
+    private TripWriteBehindService tripWriteBehindService;
+
+    @Autowired
+    private TelemetryLogService telemetryLog;
+
+    @Autowired
+    private FleetStateService fleetState;
 
     // Use the in-memory cache for intersections instead of persisting to DB.
     @Autowired
@@ -41,19 +47,49 @@ public class ScheduletoAirportServices {
     @Autowired
     private MockAirportClient mockAirportClient;
 
+    @Autowired
+    private DockSchedulerService dockSchedulerService;
+
+    @Autowired
+    private DestinationRegistry destinationRegistry;
+
     @Autowired
     private MockOSMClient mockOSMClient;
 
     @Autowired
     private AssignmentSchedulerService assignmentSchedulerService;
 
+    @Autowired
+    private RouteCacheService routeCacheService;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    // When true, scheduleTruck starts its upstream calls concurrently instead of one after another.
+    @Value("${airflow.schedule.parallel-fetch:true}")
+    private boolean parallelFetch;
+
+    @Value("${airflow.schedule.call-timeout-ms:8000}")
+    private long callTimeoutMs;
+
+    @Value("${airflow.schedule.fetch-deadline-ms:10000}")
+    private long fetchDeadlineMs;
+
     @Value("${api.key}")
     private String googleMapsApiKey;
 
-    private RestTemplate restTemplate = new RestTemplate();
+    // Shared pooled client; see RestTemplateConfig.
+    @Autowired
+    private RestTemplate restTemplate;
+
     @Autowired
     private MockTransportationController mockTransportationController;
 
+    // Trip id -> assignment id, looked up once per trip for location updates; cleared nightly
+    // with the day's assignments.
+    private final Map<String, String> tripAssignments = new ConcurrentHashMap<>();
+
     /**
      * Schedules a truck for a route toward the airport.
      * Generates a route, reserves parking, obtains initial DALI advice,
@@ -61,7 +97,10 @@ public class ScheduletoAirportServices {
      */
     public Route scheduleTruck(String assignmentID, String where, Coordinate currentLocation) {
         // Validate driver and truck.
-        Assignment assignment = assignmentSchedulerService.getCachedAssignmentsMap().get(assignmentID);
+        Assignment assignment = assignmentSchedulerService.getAssignment(assignmentID);
+        if (assignment == null) {
+            return createErrorTrip("Assignment not found: " + assignmentID, "ASSIGNMENT_NOT_FOUND").getCurrentRoute();
+        }
         double destinationLat;
         double destinationLon;
         System.out.println(assignmentID);
@@ -74,7 +113,7 @@ public class ScheduletoAirportServices {
 //
 //        Driver driver = driverOptional.get();
 //
-//        Optional<Truck> truckOptional = truckRepository.findById(truckId);
+//        Optional<Truck> truckOptional = referenceDataCache.findTruck(truckId);
 //        if (truckOptional.isEmpty()) {
 //            return createErrorTrip("Truck not found in DB: " + truckId, "TRUCK_NOT_FOUND");
 //        }
@@ -83,72 +122,77 @@ public class ScheduletoAirportServices {
 //        // Get initial DALI advice for current location.
 //        DaliAdvice initialAdvice = mockDaliClient.getRealTimeTrafficData(currentLocation);
 
-        // Generate route via Google Directions API.
+        // Generate route via Google Directions API. "pickup" and "DockParking" depend on the
+        // assignment; every other destination comes from the registry.
         if(where.equals("pickup")){
             destinationLat = assignment.getLocation().getLatitude();
             destinationLon = assignment.getLocation().getLongitude();
         }
-        else if(where.equals("externalParking")){
-            destinationLat = NorthEntranceLat;
-            destinationLon = NorthEntranceLon;
-        }
         else if(where.equals("DockParking")){
+            // The dock window booked by the dock scheduler in flightinfo, else the terminal.
             TimeDetails timeDetails = assignmentSchedulerService.getCachedFlightInfo(assignmentID);
-            if(timeDetails.getFlightTerminal().equals("a")){
-                destinationLat = 32.904586;
-                destinationLon = -97.036216;
-            }
-            else if(timeDetails.getFlightTerminal().equals("b")){
-                destinationLat = 32.904767;
-                destinationLon = -97.044585;
-            }
-            else if(timeDetails.getFlightTerminal().equals("c")){
-                destinationLat = 32.897256;
-                destinationLon = -97.036197;
-            }
-            else if(timeDetails.getFlightTerminal().equals("d")){
-                destinationLat = 32.898125;
-                destinationLon = -97.043802;
-            }
-            else{
-                destinationLat = 32.890378;
-                destinationLon = -97.037524;
-            }
-        }
-        else if(where.equals("insideparking")){
-            destinationLat = 32.914447;
-            destinationLon = -97.042683;
+            Coordinate dock = timeDetails != null && timeDetails.getDocklocation() != null
+                    ? timeDetails.getDocklocation()
+                    : dockSchedulerService.terminalLocation(timeDetails != null ? timeDetails.getFlightTerminal() : null);
+            destinationLat = dock.getLatitude();
+            destinationLon = dock.getLongitude();
         }
         else{
-            if(where.equals("entrance")){
-                destinationLat = 32.922274;
-                destinationLon = -97.040869;
-            }
-            else{
-                destinationLat = 32.922829;
-                destinationLon = -97.039594;
-            }
-
+            Coordinate named = destinationRegistry.destination(where);
+            destinationLat = named.getLatitude();
+            destinationLon = named.getLongitude();
         }
 
-
-
-        String routePolylineResponse = mockTransportationController.getRoutePolyline("token",currentLocation.getLatitude(),
-                currentLocation.getLongitude(),
-                destinationLat,
-                destinationLon,true,false);
-        System.out.println("In route"+routePolylineResponse);
-        Route route;
-        try {
-            route = fetchRouteFromGoogle(
-                    currentLocation.getLatitude(),
+        Location destination = new Location(destinationLat, destinationLon);
+        // Trucks leaving the same area for the same destination share a cached route.
+        Route route = routeCacheService.get(currentLocation, destinationLat, destinationLon);
+        List<Intersection> intersections = null;
+        if (parallelFetch) {
+            // The route and polyline calls don't depend on each other: start them together.
+            // Intersections are matched locally against the decoded route geometry once it arrives.
+            CompletableFuture<Route> routeFuture = route != null
+                    ? CompletableFuture.completedFuture(route)
+                    : fetchRouteAsync(currentLocation, destinationLat, destinationLon);
+            CompletableFuture<List<Intersection>> intersectionsFuture =
+                    routeFuture.thenApply(r -> mockOSMClient.getIntersections(r, currentLocation, destination, 10));
+            try {
+                CompletableFuture.allOf(routeFuture, intersectionsFuture).get(fetchDeadlineMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                return createErrorTrip("Timed out after " + fetchDeadlineMs + " ms fetching route", "ROUTE_FETCH_TIMEOUT").getCurrentRoute();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return createErrorTrip("Interrupted while fetching route", "ROUTE_FETCH_FAILED").getCurrentRoute();
+            } catch (ExecutionException e) {
+                // Inspected per call below so the right error code is reported.
+            }
+            try {
+                route = routeFuture.join();
+            } catch (CompletionException e) {
+                return createErrorTrip("Failed to fetch route: " + e.getCause().getMessage(), "ROUTE_FETCH_FAILED").getCurrentRoute();
+            }
+            try {
+                intersections = intersectionsFuture.join();
+            } catch (CompletionException e) {
+                return createErrorTrip("Failed to fetch intersections: " + e.getCause().getMessage(), "OSM_FETCH_FAILED").getCurrentRoute();
+            }
+        } else if (route == null) {
+            String routePolylineResponse = mockTransportationController.getRoutePolyline("token",currentLocation.getLatitude(),
                     currentLocation.getLongitude(),
                     destinationLat,
-                    destinationLon);
-            route.setRelevantLocation(new Location(destinationLat, destinationLon));
-        } catch (Exception e) {
-            return createErrorTrip("Failed to fetch route: " + e.getMessage(), "ROUTE_FETCH_FAILED").getCurrentRoute();
+                    destinationLon,true,false);
+            System.out.println("In route"+routePolylineResponse);
+            try {
+                route = fetchRouteFromGoogle(
+                        currentLocation.getLatitude(),
+                        currentLocation.getLongitude(),
+                        destinationLat,
+                        destinationLon);
+            } catch (Exception e) {
+                return createErrorTrip("Failed to fetch route: " + e.getMessage(), "ROUTE_FETCH_FAILED").getCurrentRoute();
+            }
+            routeCacheService.put(currentLocation, destinationLat, destinationLon, route);
         }
+        route.setRelevantLocation(destination);
 
         // Reserve a parking slot using the mock Airport client.
 //        List<ParkingSlot> availableSlots = mockAirportClient.getAvailableSlots();
@@ -163,6 +207,7 @@ public class ScheduletoAirportServices {
 
         // Build and save the Trip.
 //        Trip trip = new Trip();
+//        trip.setAssignmentId(assignmentID);
 //        trip.setDriver(driver);
 //        trip.setTruck(truck);
 //        trip.setReservedParkingSlot(reservedSlot);
@@ -184,7 +229,9 @@ public class ScheduletoAirportServices {
 //
 //        // Fetch intersections using the mock OSM client.
         try {
-            List<Intersection> intersections = mockOSMClient.getIntersections(route, currentLocation, new Location(destinationLat, destinationLon), 10);
+            if (intersections == null) {
+                intersections = mockOSMClient.getIntersections(route, currentLocation, destination, 10);
+            }
             // Store intersections in the in-memory cache.
             List<Coordinate> intersectionList = new ArrayList<>();
 
@@ -204,6 +251,10 @@ public class ScheduletoAirportServices {
         } catch (Exception e) {
             return createErrorTrip("Failed to fetch intersections: " + e.getMessage(), "OSM_FETCH_FAILED").getCurrentRoute();
         }
+        // The truck is now driving this route; progress and ETA are tracked along it.
+        fleetState.assignRoute(assignment.getTruck_id(), assignmentID, route);
+        fleetState.updatePosition(assignment.getTruck_id(), assignmentID,
+                currentLocation.getLatitude(), currentLocation.getLongitude());
 
 
         return route;
@@ -297,7 +348,7 @@ public class ScheduletoAirportServices {
     /**
      * Completes the trip.
      * Confirms arrival via the mock Airport client, clears the intersection cache,
-     * and deletes the trip from the database.
+     * frees the trip's parking slot and deletes the trip from the database.
      */
     public Trip completeTrip(String tripId) {
         Optional<Trip> tripOptional = tripRepository.findById(tripId);
@@ -308,16 +359,34 @@ public class ScheduletoAirportServices {
         if (!trip.isActive()) {
             return createErrorTrip("Trip is already completed!", "TRIP_ALREADY_COMPLETED");
         }
+        Optional<Truck> truckOptional = referenceDataCache.findTruck(trip.getTruckId());
+        if (truckOptional.isEmpty()) {
+            return createErrorTrip("Truck not found for trip: " + tripId, "TRUCK_NOT_FOUND");
+        }
+        Truck truck = truckOptional.get();
         trip.setActive(false);
         LocalDateTime now = LocalDateTime.now();
         // Confirm arrival using the mock Airport client.
         try {
-            mockAirportClient.confirmArrival(trip.getTruck().getTruckId());
+            mockAirportClient.confirmArrival(truck.getTruckId());
         } catch (Exception e) {
             return createErrorTrip("Failed to confirm arrival with airport: " + e.getMessage(), "AIRPORT_CONFIRM_FAILED");
         }
-        // Clear intersections from the in-memory cache.
-        intersectionCacheService.removeIntersections(trip.getId());
+        // Clear intersections from the in-memory cache and release the held parking/dock.
+        // Both are keyed by the assignment the trip was scheduled for, not the trip id.
+        String assignmentId = trip.getAssignmentId();
+        if (assignmentId != null) {
+            intersectionCacheService.removeIntersections(assignmentId);
+            assignmentSchedulerService.releaseAssignment(assignmentId);
+        } else {
+            System.out.println("Trip " + trip.getId() + " has no assignment; nothing to release");
+        }
+        if (trip.getParkingSlotId() != null) {
+            mockAirportClient.releaseSlot(trip.getParkingSlotId());
+        }
+        fleetState.remove(truck.getTruckId());
+        tripAssignments.remove(trip.getId());
+        tripWriteBehindService.discard(trip.getId());
         try {
             tripRepository.delete(trip);
         } catch (Exception e) {
@@ -333,11 +402,85 @@ public class ScheduletoAirportServices {
      * Retrieves trip details.
      */
     public Trip getTrip(String tripId) {
-        Optional<Trip> tripOptional = tripRepository.findById(tripId);
+        Optional<Trip> tripOptional = tripRepository.findWithAssociationsById(tripId);
         if (tripOptional.isEmpty()) {
             return createErrorTrip("Trip not found: " + tripId, "TRIP_NOT_FOUND");
         }
-        return tripOptional.get();
+        return tripWriteBehindService.overlay(tripOptional.get());
+    }
+
+    /**
+     * Active trips for the dashboard, as flat rows from one joined query.
+     */
+    public List<ActiveTripSummary> getActiveTrips() {
+        return tripRepository.findActiveTripSummaries();
+    }
+
+    /**
+     * Records a driver's location (and optionally a new ETA) for a trip. The write
+     * is coalesced and persisted in the next batch; see TripWriteBehindService.
+     * Returns false if the update was rejected because trip writes are backed up.
+     */
+    public boolean recordTripLocation(String tripId, Location location, LocalDateTime estimatedArrival) {
+        if (!tripWriteBehindService.updateLocation(tripId, location, estimatedArrival)) {
+            return false;
+        }
+        // Logged under the assignment, like the DALI stream's points, so one truck's
+        // history is in one place; see GET /telemetry/{assignmentId}.
+        String assignmentId = assignmentIdForTrip(tripId);
+        telemetryLog.append(assignmentId, location.getLatitude(), location.getLongitude());
+        Assignment assignment = assignmentId != null ? assignmentSchedulerService.getAssignment(assignmentId) : null;
+        if (assignment != null) {
+            fleetState.updatePosition(assignment.getTruck_id(), assignmentId, location.getLatitude(), location.getLongitude());
+        }
+        return true;
+    }
+
+    // The assignment a trip was scheduled for, or null if the trip is unknown or has none.
+    private String assignmentIdForTrip(String tripId) {
+        String cached = tripAssignments.get(tripId);
+        if (cached != null) {
+            return cached;
+        }
+        Optional<String> assignmentId = tripRepository.findAssignmentIdById(tripId);
+        assignmentId.ifPresent(id -> tripAssignments.put(tripId, id));
+        return assignmentId.orElse(null);
+    }
+
+    @Scheduled(cron = "0 59 23 * * *")
+    public void clearTripAssignments() {
+        tripAssignments.clear();
+    }
+
+    // -------------------- Async fan-out helpers --------------------
+
+    // Fetches the Google route and the route_polyline concurrently; the polyline is only logged,
+    // so its failure doesn't fail the route.
+    private CompletableFuture<Route> fetchRouteAsync(Coordinate origin, double destLat, double destLon) {
+        CompletableFuture<String> polylineFuture = callAsync(() -> mockTransportationController.getRoutePolyline("token",
+                origin.getLatitude(), origin.getLongitude(), destLat, destLon, true, false))
+                .exceptionally(ex -> {
+                    System.out.println("route_polyline failed: " + ex.getMessage());
+                    return null;
+                });
+        CompletableFuture<Route> routeFuture = callAsync(() -> fetchRouteFromGoogle(
+                origin.getLatitude(), origin.getLongitude(), destLat, destLon));
+        return routeFuture.thenCombine(polylineFuture, (route, polyline) -> {
+            System.out.println("In route" + polyline);
+            routeCacheService.put(origin, destLat, destLon, route);
+            return route;
+        });
+    }
+
+    // Runs a blocking upstream call on the outbound executor with a per-call timeout.
+    private <T> CompletableFuture<T> callAsync(Callable<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, outboundExecutor).orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS);
     }
 
     // -------------------- Google Directions API Methods --------------------
@@ -352,8 +495,7 @@ public class ScheduletoAirportServices {
         headers.set("x-goog-api-key", googleMapsApiKey);
         headers.set("x-goog-fieldmask", "routes.duration,routes.distanceMeters,routes.polyline.encodedPolyline");
         HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-        RestTemplate rt = new RestTemplate();
-        ResponseEntity<Map> response = rt.postForEntity(url, entity, Map.class);
+        ResponseEntity<Map> response = restTemplate.postForEntity(url, entity, Map.class);
         if (response.getStatusCode() != HttpStatus.OK) {
             throw new Exception("Failed to call Google Routes API: " + response.getStatusCode());
         }
@@ -407,6 +549,13 @@ public class ScheduletoAirportServices {
         }
         Route route = new Route(new ArrayList<>(), distanceKm, durationMinutes);
         route.setEncodedPolyline(polyline);
+        if (polyline != null) {
+            try {
+                route.setGeometry(PolylineDecoder.decode(polyline));
+            } catch (IllegalArgumentException e) {
+                System.out.println("Ignoring malformed polyline: " + e.getMessage());
+            }
+        }
         return route;
     }
     private double parseDurationField(Object durationField) throws Exception {
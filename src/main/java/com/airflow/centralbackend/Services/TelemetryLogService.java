@@ -0,0 +1,353 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.util.GeoUtils;
+import com.airflow.centralbackend.dto.TelemetryPoint;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Append-only GPS telemetry per assignment, kept in memory-mapped segment files
+ * instead of PostgreSQL.
+ *
+ * Records are fixed-width (40 bytes):
+ *   0 assignment key (UUID, 16 bytes) | 16 epoch millis | 24 lat E7 | 28 lon E7 | 32 speed km/h | 36 reserved
+ *
+ * Writers claim a slot with one atomic increment and fill it in place; the
+ * timestamp is written last with release semantics, so a slot with a zero
+ * timestamp is "not written yet" and is skipped by readers. Segments roll daily
+ * (telemetry-YYYY-MM-DD-NNN.seg) and when full.
+ *
+ * Every segment keeps an in-memory index of each assignment's slots, so a query
+ * reads only that assignment's records. The active segment adds to its index as
+ * records are written; older segments are indexed once when first read and stay
+ * mapped in a small LRU cache (airflow.telemetry.cached-segments).
+ */
+@Service
+public class TelemetryLogService {
+
+    private static final int RECORD_BYTES = 40;
+    private static final int TIMESTAMP_OFFSET = 16;
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    @Value("${airflow.telemetry.enabled:true}")
+    private boolean enabled;
+
+    @Value("${airflow.telemetry.dir:telemetry}")
+    private String directory;
+
+    @Value("${airflow.telemetry.segment-records:1048576}")
+    private int segmentRecords;
+
+    @Value("${airflow.telemetry.retention-days:14}")
+    private int retentionDays;
+
+    @Value("${airflow.telemetry.cached-segments:16}")
+    private int cachedSegments;
+
+    private Path dir;
+    private volatile Segment active;
+    // Indexed older segments, least recently read first; guarded by synchronized (sealed).
+    private final LinkedHashMap<Path, Segment> sealed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Segment> eldest) {
+            return size() > cachedSegments;
+        }
+    };
+    // Last point per assignment, to derive speed between consecutive points.
+    private final ConcurrentHashMap<String, long[]> lastPoints = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            dir = Files.createDirectories(Paths.get(directory));
+            List<Path> today = segments(LocalDate.now(ZONE));
+            if (!today.isEmpty()) {
+                active = Segment.open(today.get(today.size() - 1), LocalDate.now(ZONE), today.size() - 1, segmentRecords);
+            }
+            System.out.println("Telemetry log at " + dir.toAbsolutePath());
+        } catch (IOException e) {
+            enabled = false;
+            System.out.println("Telemetry log disabled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records a position for the assignment at the current time.
+     */
+    public void append(String assignmentId, double latitude, double longitude) {
+        if (!enabled || assignmentId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        UUID key = key(assignmentId);
+        int latE7 = (int) Math.round(latitude * 1e7);
+        int lonE7 = (int) Math.round(longitude * 1e7);
+        float speed = speedKmh(assignmentId, latE7, lonE7, now);
+        LocalDate day = Instant.ofEpochMilli(now).atZone(ZONE).toLocalDate();
+        try {
+            while (true) {
+                Segment segment = active;
+                if (segment == null || !segment.day.equals(day)) {
+                    segment = roll(segment, day);
+                }
+                int slot = segment.next.getAndIncrement();
+                if (slot < segment.capacity) {
+                    segment.write(slot, key, now, latE7, lonE7, speed);
+                    return;
+                }
+                roll(segment, day);
+            }
+        } catch (IOException e) {
+            System.out.println("Telemetry append failed for " + assignmentId + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Points recorded for the assignment between from and to (inclusive), in append order.
+     */
+    public List<TelemetryPoint> scan(String assignmentId, Instant from, Instant to) throws IOException {
+        List<TelemetryPoint> points = new ArrayList<>();
+        if (!enabled) {
+            return points;
+        }
+        UUID key = key(assignmentId);
+        long fromMs = from.toEpochMilli();
+        long toMs = to.toEpochMilli();
+        for (LocalDate day = from.atZone(ZONE).toLocalDate(); !day.isAfter(to.atZone(ZONE).toLocalDate()); day = day.plusDays(1)) {
+            for (Path path : segments(day)) {
+                segment(path, day).read(key, fromMs, toMs, points);
+            }
+        }
+        return points;
+    }
+
+    // The active segment, or an indexed older one from the cache (loading it on a miss).
+    private Segment segment(Path path, LocalDate day) throws IOException {
+        Segment current = active;
+        if (current != null && path.equals(current.path)) {
+            return current;
+        }
+        synchronized (sealed) {
+            Segment cached = sealed.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        Segment loaded = Segment.load(path, day);
+        synchronized (sealed) {
+            Segment raced = sealed.putIfAbsent(path, loaded);
+            return raced != null ? raced : loaded;
+        }
+    }
+
+    private synchronized Segment roll(Segment expected, LocalDate day) throws IOException {
+        Segment current = active;
+        if (current != expected) {
+            return current;
+        }
+        if (current != null) {
+            current.buffer.force();
+            // Its index is complete, so keep it for reads instead of indexing the file again.
+            synchronized (sealed) {
+                sealed.put(current.path, current);
+            }
+        }
+        int index = current != null && current.day.equals(day) ? current.index + 1 : segments(day).size();
+        Path path = dir.resolve(String.format("telemetry-%s-%03d.seg", day, index));
+        Segment next = Segment.open(path, day, index, segmentRecords);
+        active = next;
+        return next;
+    }
+
+    private List<Path> segments(LocalDate day) throws IOException {
+        String prefix = "telemetry-" + day + "-";
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(prefix))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private float speedKmh(String assignmentId, int latE7, int lonE7, long now) {
+        long[] previous = lastPoints.put(assignmentId, new long[]{latE7, lonE7, now});
+        if (previous == null || now <= previous[2]) {
+            return 0f;
+        }
+        double km = GeoUtils.distanceKm(previous[0] / 1e7, previous[1] / 1e7, latE7 / 1e7, lonE7 / 1e7);
+        return (float) (km / ((now - previous[2]) / 3_600_000.0));
+    }
+
+    // Assignment ids are UUIDs; anything else gets a stable name-based UUID.
+    private static UUID key(String assignmentId) {
+        try {
+            return UUID.fromString(assignmentId);
+        } catch (IllegalArgumentException e) {
+            return UUID.nameUUIDFromBytes(assignmentId.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Deletes segments older than the retention period.
+     */
+    @Scheduled(cron = "0 30 0 * * *")
+    public void purgeExpired() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        lastPoints.clear();
+        String cutoff = "telemetry-" + LocalDate.now(ZONE).minusDays(retentionDays);
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path path : files.filter(p -> p.getFileName().toString().compareTo(cutoff) < 0).toList()) {
+                synchronized (sealed) {
+                    sealed.remove(path);
+                }
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        Segment current = active;
+        if (current != null) {
+            current.buffer.force();
+        }
+    }
+
+    private static final class Segment {
+        private final Path path;
+        private final LocalDate day;
+        private final int index;
+        private final int capacity;
+        private final MappedByteBuffer buffer;
+        private final AtomicInteger next;
+        // Slots of each assignment's written records.
+        private final ConcurrentHashMap<UUID, Slots> slotsByKey = new ConcurrentHashMap<>();
+
+        private Segment(Path path, LocalDate day, int index, MappedByteBuffer buffer, int written) {
+            this.path = path;
+            this.day = day;
+            this.index = index;
+            this.capacity = buffer.capacity() / RECORD_BYTES;
+            this.buffer = buffer;
+            this.next = new AtomicInteger(written);
+            indexWritten(written);
+        }
+
+        // Maps the file (creating it at full size if new) and resumes after its last written record.
+        static Segment open(Path path, LocalDate day, int index, int records) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = Math.max(channel.size(), (long) records * RECORD_BYTES);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                return new Segment(path, day, index, buffer, afterLastWritten(buffer));
+            }
+        }
+
+        // Maps an older segment read-only for queries; it is never written again.
+        static Segment load(Path path, LocalDate day) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                return new Segment(path, day, -1, buffer, afterLastWritten(buffer));
+            }
+        }
+
+        // Concurrent writers finish their slots out of order, so after a crash there can be
+        // unwritten slots below written ones. Resuming after the highest written slot never
+        // overwrites a record; the gaps stay zero and readers skip them.
+        private static int afterLastWritten(MappedByteBuffer buffer) {
+            for (int slot = buffer.capacity() / RECORD_BYTES - 1; slot >= 0; slot--) {
+                if (buffer.getLong(slot * RECORD_BYTES + TIMESTAMP_OFFSET) != 0) {
+                    return slot + 1;
+                }
+            }
+            return 0;
+        }
+
+        // One pass over the records already in the file when it is opened.
+        private void indexWritten(int written) {
+            for (int slot = 0; slot < written; slot++) {
+                int base = slot * RECORD_BYTES;
+                if (buffer.getLong(base + TIMESTAMP_OFFSET) != 0) {
+                    slotsOf(new UUID(buffer.getLong(base), buffer.getLong(base + 8))).add(slot);
+                }
+            }
+        }
+
+        private Slots slotsOf(UUID key) {
+            return slotsByKey.computeIfAbsent(key, k -> new Slots());
+        }
+
+        void write(int slot, UUID key, long ts, int latE7, int lonE7, float speed) {
+            int base = slot * RECORD_BYTES;
+            buffer.putLong(base, key.getMostSignificantBits());
+            buffer.putLong(base + 8, key.getLeastSignificantBits());
+            buffer.putInt(base + 24, latE7);
+            buffer.putInt(base + 28, lonE7);
+            buffer.putFloat(base + 32, speed);
+            LONGS.setRelease(buffer, base + TIMESTAMP_OFFSET, ts);
+            // Indexed only once written, so readers never see a half-filled slot.
+            slotsOf(key).add(slot);
+        }
+
+        void read(UUID key, long fromMs, long toMs, List<TelemetryPoint> out) {
+            Slots slots = slotsByKey.get(key);
+            if (slots == null) {
+                return;
+            }
+            for (int slot : slots.snapshot()) {
+                int base = slot * RECORD_BYTES;
+                long ts = (long) LONGS.getAcquire(buffer, base + TIMESTAMP_OFFSET);
+                if (ts < fromMs || ts > toMs) {
+                    continue;
+                }
+                out.add(new TelemetryPoint(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(ts), ZONE).toString(),
+                        buffer.getInt(base + 24) / 1e7,
+                        buffer.getInt(base + 28) / 1e7,
+                        buffer.getFloat(base + 32)));
+            }
+        }
+    }
+
+    // Growable int list of one assignment's slots in a segment.
+    private static final class Slots {
+        private int[] slots = new int[16];
+        private int size;
+
+        synchronized void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        // Sorted, since two writers for one assignment can finish out of order.
+        synchronized int[] snapshot() {
+            int[] copy = Arrays.copyOf(slots, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
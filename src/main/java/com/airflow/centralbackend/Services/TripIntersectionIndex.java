@@ -0,0 +1,175 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.Intersection;
+import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.util.GeoUtils;
+
+import java.util.*;
+
+/**
+ * Immutable index over one trip's intersections: ordered by sequence number and
+ * bucketed into a lat/lon grid so "what is ahead of this position" is answered
+ * by looking at a few neighbouring cells instead of every intersection.
+ *
+ * Points are stored as fixed-point micro-degrees in parallel int arrays (about
+ * 0.1 m resolution), and the grid as sorted primitive arrays, so a cached trip
+ * costs a handful of arrays rather than an Intersection + Location object per
+ * point. Intersection objects are only created for the points a caller asks for.
+ */
+public class TripIntersectionIndex {
+
+    // ~200 m cells; intersections on a corridor are rarely closer than that.
+    static final double CELL_DEGREES = 0.002;
+    // Beyond this many rings around the truck's cell fall back to a full scan.
+    private static final int MAX_RINGS = 8;
+    private static final double MICRO = 1e6;
+
+    // Route order.
+    private final int[] sequence;
+    private final int[] latE6;
+    private final int[] lonE6;
+
+    // Grid: sorted distinct cell keys, and for each the slice of cellPoints holding its point indices.
+    private final long[] cellKeys;
+    private final int[] cellStart;
+    private final int[] cellPoints;
+
+    public TripIntersectionIndex(List<Intersection> intersections) {
+        List<Intersection> sorted = new ArrayList<>(intersections);
+        sorted.sort(Comparator.comparingInt(Intersection::getSequenceNumber));
+        int n = sorted.size();
+        sequence = new int[n];
+        latE6 = new int[n];
+        lonE6 = new int[n];
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            Intersection inter = sorted.get(i);
+            sequence[i] = inter.getSequenceNumber();
+            latE6[i] = (int) Math.round(inter.getLocation().getLatitude() * MICRO);
+            lonE6[i] = (int) Math.round(inter.getLocation().getLongitude() * MICRO);
+            keys[i] = GeoUtils.cellKey(lat(i), lon(i), CELL_DEGREES);
+        }
+
+        // Sort point indices by cell, then collapse runs into (key, start) pairs.
+        Integer[] byCell = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            byCell[i] = i;
+        }
+        Arrays.sort(byCell, Comparator.comparingLong((Integer i) -> keys[i]).thenComparingInt(i -> i));
+        cellPoints = new int[n];
+        long[] distinct = new long[n];
+        int[] starts = new int[n + 1];
+        int cells = 0;
+        for (int i = 0; i < n; i++) {
+            cellPoints[i] = byCell[i];
+            long key = keys[byCell[i]];
+            if (cells == 0 || distinct[cells - 1] != key) {
+                distinct[cells] = key;
+                starts[cells] = i;
+                cells++;
+            }
+        }
+        starts[cells] = n;
+        cellKeys = Arrays.copyOf(distinct, cells);
+        cellStart = Arrays.copyOf(starts, cells + 1);
+    }
+
+    public int size() {
+        return sequence.length;
+    }
+
+    // First {@code count} intersections in route order.
+    public List<Intersection> first(int count) {
+        return slice(0, count);
+    }
+
+    /**
+     * Next {@code count} intersections the truck has not passed yet, given its position.
+     */
+    public List<Intersection> ahead(double lat, double lon, int count) {
+        if (size() == 0) {
+            return Collections.emptyList();
+        }
+        int nearest = nearestIndex(lat, lon);
+        int start = nearest;
+        // Closer to the next intersection than the nearest one is: the nearest is behind us.
+        if (nearest + 1 < size()) {
+            double toNext = GeoUtils.distanceKm(lat, lon, lat(nearest + 1), lon(nearest + 1));
+            double segment = GeoUtils.distanceKm(lat(nearest), lon(nearest), lat(nearest + 1), lon(nearest + 1));
+            if (toNext < segment) {
+                start = nearest + 1;
+            }
+        }
+        return slice(start, count);
+    }
+
+    int nearestIndex(double lat, double lon) {
+        int row = (int) Math.floor(lat / CELL_DEGREES);
+        int col = (int) Math.floor(lon / CELL_DEGREES);
+        int best = -1;
+        double bestDistance = Double.MAX_VALUE;
+        for (int ring = 0; ring <= MAX_RINGS; ring++) {
+            for (int r = row - ring; r <= row + ring; r++) {
+                for (int c = col - ring; c <= col + ring; c++) {
+                    // Only the border of the ring is new.
+                    if (Math.abs(r - row) != ring && Math.abs(c - col) != ring) {
+                        continue;
+                    }
+                    int cell = Arrays.binarySearch(cellKeys, GeoUtils.cellKey(r, c));
+                    if (cell < 0) {
+                        continue;
+                    }
+                    for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                        int i = cellPoints[p];
+                        double d = GeoUtils.distanceKm(lat, lon, lat(i), lon(i));
+                        if (d < bestDistance || (d == bestDistance && i < best)) {
+                            bestDistance = d;
+                            best = i;
+                        }
+                    }
+                }
+            }
+            // Anything in a farther ring is at least this far away.
+            if (best >= 0 && bestDistance <= ringDistanceKm(lat, ring)) {
+                return best;
+            }
+        }
+        if (best >= 0) {
+            return best;
+        }
+        for (int i = 0; i < size(); i++) {
+            double d = GeoUtils.distanceKm(lat, lon, lat(i), lon(i));
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private List<Intersection> slice(int start, int count) {
+        int end = Math.min(start + count, size());
+        List<Intersection> result = new ArrayList<>(Math.max(0, end - start));
+        for (int i = start; i < end; i++) {
+            Intersection inter = new Intersection();
+            inter.setSequenceNumber(sequence[i]);
+            inter.setLocation(new Location(lat(i), lon(i)));
+            result.add(inter);
+        }
+        return result;
+    }
+
+    private double lat(int i) {
+        return latE6[i] / MICRO;
+    }
+
+    private double lon(int i) {
+        return lonE6[i] / MICRO;
+    }
+
+    // Lower bound on the distance from a point to any cell outside the given ring.
+    private static double ringDistanceKm(double lat, int ring) {
+        double degrees = ring * CELL_DEGREES;
+        return Math.min(GeoUtils.distanceKm(lat, 0, lat + degrees, 0), GeoUtils.distanceKm(lat, 0, lat, degrees));
+    }
+}
@@ -0,0 +1,175 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.Trip;
+import com.airflow.centralbackend.Repository.TripRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind persistence for trip location and ETA updates.
+ *
+ * Updates are coalesced per trip in memory (the newest value wins) and written
+ * in one transaction per flush, so Hibernate sends them as JDBC batches (see
+ * hibernate.jdbc.batch_size). A flush runs on a timer, early when enough trips
+ * are pending, and on shutdown. The pending map is bounded: at capacity the
+ * caller flushes before its update is accepted, and if that flush fails (or one
+ * failed moments ago) the update is rejected rather than queued.
+ */
+@Service
+public class TripWriteBehindService {
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("outboundExecutor")
+    private Executor outboundExecutor;
+
+    @Value("${airflow.trips.flush-threshold:500}")
+    private int flushThreshold;
+
+    @Value("${airflow.trips.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${airflow.trips.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    private final ConcurrentHashMap<String, TripUpdate> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile long lastFailedFlush;
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Queues the update for the next flush. Returns false if it was rejected: the
+     * pending map is full and can't be flushed because the database is failing.
+     * Updates to a trip that is already pending are always accepted (they coalesce).
+     */
+    public boolean updateLocation(String tripId, Location location, LocalDateTime estimatedArrival) {
+        if (pending.size() >= maxPending && !pending.containsKey(tripId)) {
+            // Don't make every caller queue up behind a flush that just failed.
+            if (System.currentTimeMillis() - lastFailedFlush >= flushIntervalMs) {
+                flush();
+            }
+            if (pending.size() >= maxPending) {
+                rejected.incrementAndGet();
+                return false;
+            }
+        }
+        TripUpdate update = new TripUpdate(location, estimatedArrival);
+        pending.merge(tripId, update, (older, newer) -> newer.newer(older));
+        if (pending.size() >= flushThreshold && flushQueued.compareAndSet(false, true)) {
+            outboundExecutor.execute(() -> {
+                flushQueued.set(false);
+                flush();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Applies a not-yet-flushed update to a trip just read from the database, so
+     * readers see their own writes.
+     */
+    public Trip overlay(Trip trip) {
+        TripUpdate update = trip.getId() == null ? null : pending.get(trip.getId());
+        if (update != null) {
+            update.applyTo(trip);
+        }
+        return trip;
+    }
+
+    // Drops pending updates for a trip that is being deleted.
+    public void discard(String tripId) {
+        pending.remove(tripId);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    public long rejectedCount() {
+        return rejected.get();
+    }
+
+    @Scheduled(fixedDelayString = "${airflow.trips.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<String, TripUpdate> batch = new HashMap<>();
+        for (String tripId : new ArrayList<>(pending.keySet())) {
+            TripUpdate update = pending.remove(tripId);
+            if (update != null) {
+                batch.put(tripId, update);
+            }
+        }
+        try {
+            Integer written = transactionTemplate.execute(status -> {
+                List<Trip> trips = tripRepository.findAllById(batch.keySet());
+                for (Trip trip : trips) {
+                    batch.get(trip.getId()).applyTo(trip);
+                }
+                tripRepository.saveAll(trips);
+                return trips.size();
+            });
+            if (written != null && written < batch.size()) {
+                System.out.println("Trip flush: " + (batch.size() - written) + " updates for unknown trips dropped");
+            }
+            lastFailedFlush = 0;
+        } catch (Exception e) {
+            lastFailedFlush = System.currentTimeMillis();
+            // Put the batch back; anything that arrived meanwhile is newer and wins.
+            batch.forEach((tripId, update) -> pending.merge(tripId, update, (newer, older) -> newer.newer(older)));
+            System.out.println("Trip flush failed, " + batch.size() + " updates requeued: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static final class TripUpdate {
+        private final Location location;
+        private final LocalDateTime estimatedArrival;
+
+        private TripUpdate(Location location, LocalDateTime estimatedArrival) {
+            this.location = location;
+            this.estimatedArrival = estimatedArrival;
+        }
+
+        // This (newer) update merged over an older one; fields it leaves null keep the older value.
+        TripUpdate newer(TripUpdate older) {
+            return new TripUpdate(location != null ? location : older.location,
+                    estimatedArrival != null ? estimatedArrival : older.estimatedArrival);
+        }
+
+        void applyTo(Trip trip) {
+            if (location != null) {
+                trip.setCurrentLocation(location);
+            }
+            if (estimatedArrival != null) {
+                trip.setEstimatedArrivalTime(estimatedArrival);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.airflow.centralbackend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One row of the active-trips dashboard, built directly by the query.
+ */
+public class ActiveTripSummary {
+    private String tripId;
+    private String driverName;
+    private String truckPlate;
+    private String parkingSlotId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime startTime;
+    private LocalDateTime estimatedArrivalTime;
+
+    public ActiveTripSummary() {}
+
+    public ActiveTripSummary(String tripId, String driverName, String truckPlate, String parkingSlotId,
+                             Double latitude, Double longitude,
+                             LocalDateTime startTime, LocalDateTime estimatedArrivalTime) {
+        this.tripId = tripId;
+        this.driverName = driverName;
+        this.truckPlate = truckPlate;
+        this.parkingSlotId = parkingSlotId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.startTime = startTime;
+        this.estimatedArrivalTime = estimatedArrivalTime;
+    }
+
+    public String getTripId() { return tripId; }
+    public void setTripId(String tripId) { this.tripId = tripId; }
+    public String getDriverName() { return driverName; }
+    public void setDriverName(String driverName) { this.driverName = driverName; }
+    public String getTruckPlate() { return truckPlate; }
+    public void setTruckPlate(String truckPlate) { this.truckPlate = truckPlate; }
+    public String getParkingSlotId() { return parkingSlotId; }
+    public void setParkingSlotId(String parkingSlotId) { this.parkingSlotId = parkingSlotId; }
+    public Double getLatitude() { return latitude; }
+    public void setLatitude(Double latitude) { this.latitude = latitude; }
+    public Double getLongitude() { return longitude; }
+    public void setLongitude(Double longitude) { this.longitude = longitude; }
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    public LocalDateTime getEstimatedArrivalTime() { return estimatedArrivalTime; }
+    public void setEstimatedArrivalTime(LocalDateTime estimatedArrivalTime) { this.estimatedArrivalTime = estimatedArrivalTime; }
+}
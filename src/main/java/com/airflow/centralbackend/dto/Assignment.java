@@ -1,5 +1,6 @@
 package com.airflow.centralbackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class Assignment {
     private String id;
@@ -12,6 +13,12 @@ public class Assignment {
     private String priority;
     private String trucker_name;
     private String truck_id;
+    // Identity key and content hash of the manifest this assignment was dispatched for
+    // (see ManifestKeys); kept server-side only.
+    @JsonIgnore
+    private String identityKey;
+    @JsonIgnore
+    private String contentHash;
 
     public Assignment() {}
     // getters + setters for all fields...
@@ -24,6 +31,24 @@ public class Assignment {
         this.id = id;
     }
 
+    @JsonIgnore
+    public String getIdentityKey() {
+        return identityKey;
+    }
+
+    public void setIdentityKey(String identityKey) {
+        this.identityKey = identityKey;
+    }
+
+    @JsonIgnore
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public String getTruck_id() {
         return truck_id;
     }
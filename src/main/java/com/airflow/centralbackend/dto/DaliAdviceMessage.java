@@ -0,0 +1,37 @@
+package com.airflow.centralbackend.dto;
+
+/**
+ * DALI advice pushed to /topic/assignments/{assignmentId}/advice.
+ */
+public class DaliAdviceMessage {
+    private String assignmentId;
+    private double latitude;
+    private double longitude;
+    private boolean accident;
+    private int speed;
+    private long timestamp;
+
+    public DaliAdviceMessage() {}
+
+    public DaliAdviceMessage(String assignmentId, double latitude, double longitude, IntersectionResponse advice) {
+        this.assignmentId = assignmentId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accident = advice.isAccident();
+        this.speed = advice.getSpeed();
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    public String getAssignmentId() { return assignmentId; }
+    public void setAssignmentId(String assignmentId) { this.assignmentId = assignmentId; }
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+    public boolean isAccident() { return accident; }
+    public void setAccident(boolean accident) { this.accident = accident; }
+    public int getSpeed() { return speed; }
+    public void setSpeed(int speed) { this.speed = speed; }
+    public long getTimestamp() { return timestamp; }
+    public void setTimestamp(long timestamp) { this.timestamp = timestamp; }
+}
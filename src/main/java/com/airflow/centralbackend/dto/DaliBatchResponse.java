@@ -0,0 +1,24 @@
+package com.airflow.centralbackend.dto;
+
+import java.util.List;
+
+/**
+ * DALI advice for a batch of intersections, in the same order as the
+ * coordinates that were sent. Entries are null where the lookup failed.
+ */
+public class DaliBatchResponse {
+    private String assignmentId;
+    private List<IntersectionResponse> advices;
+
+    public DaliBatchResponse() {}
+
+    public DaliBatchResponse(String assignmentId, List<IntersectionResponse> advices) {
+        this.assignmentId = assignmentId;
+        this.advices = advices;
+    }
+
+    public String getAssignmentId() { return assignmentId; }
+    public void setAssignmentId(String assignmentId) { this.assignmentId = assignmentId; }
+    public List<IntersectionResponse> getAdvices() { return advices; }
+    public void setAdvices(List<IntersectionResponse> advices) { this.advices = advices; }
+}
@@ -0,0 +1,43 @@
+package com.airflow.centralbackend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DockAvailability {
+    private String dockId;
+    private Coordinate location;
+    private List<Window> freeWindows = new ArrayList<>();
+
+    public DockAvailability() {}
+
+    public DockAvailability(String dockId, Coordinate location) {
+        this.dockId = dockId;
+        this.location = location;
+    }
+
+    public String getDockId() { return dockId; }
+    public void setDockId(String dockId) { this.dockId = dockId; }
+    public Coordinate getLocation() { return location; }
+    public void setLocation(Coordinate location) { this.location = location; }
+    public List<Window> getFreeWindows() { return freeWindows; }
+    public void setFreeWindows(List<Window> freeWindows) { this.freeWindows = freeWindows; }
+
+    public void addFreeWindow(String start, String end) {
+        freeWindows.add(new Window(start, end));
+    }
+
+    public static class Window {
+        private String start;
+        private String end;
+
+        public Window() {}
+        public Window(String start, String end) {
+            this.start = start;
+            this.end = end;
+        }
+        public String getStart() { return start; }
+        public void setStart(String start) { this.start = start; }
+        public String getEnd() { return end; }
+        public void setEnd(String end) { this.end = end; }
+    }
+}
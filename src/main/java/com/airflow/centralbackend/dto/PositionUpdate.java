@@ -0,0 +1,19 @@
+package com.airflow.centralbackend.dto;
+
+/**
+ * A driver position sent over the DALI stream.
+ */
+public class PositionUpdate {
+    private double latitude;
+    private double longitude;
+    private String priority;
+
+    public PositionUpdate() {}
+
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+}
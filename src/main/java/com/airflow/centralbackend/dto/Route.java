@@ -1,7 +1,9 @@
 package com.airflow.centralbackend.dto;
 
 import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.RouteGeometry;
 import com.airflow.centralbackend.Model.RouteStep;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 import java.util.List;
 
@@ -12,6 +14,9 @@ public class Route {
     private Location relevantLocation;
     private String encodedPolyline;
     private List<Coordinate> intersections;
+    // Decoded encodedPolyline; computed once when the route is fetched and shared by cached copies.
+    @JsonIgnore
+    private RouteGeometry geometry;
     public List<Coordinate> getIntersections() { return intersections; }
     public void setIntersections(List<Coordinate> intersections) {
         this.intersections = intersections;
@@ -50,4 +55,13 @@ public class Route {
     public void setEncodedPolyline(String encodedPolyline) {
         this.encodedPolyline = encodedPolyline;
     }
+
+    @JsonIgnore
+    public RouteGeometry getGeometry() {
+        return geometry;
+    }
+
+    public void setGeometry(RouteGeometry geometry) {
+        this.geometry = geometry;
+    }
 }
@@ -0,0 +1,29 @@
+package com.airflow.centralbackend.dto;
+
+/**
+ * One recorded GPS point from the telemetry log.
+ */
+public class TelemetryPoint {
+    private String timestamp;
+    private double latitude;
+    private double longitude;
+    private double speedKmh;
+
+    public TelemetryPoint() {}
+
+    public TelemetryPoint(String timestamp, double latitude, double longitude, double speedKmh) {
+        this.timestamp = timestamp;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.speedKmh = speedKmh;
+    }
+
+    public String getTimestamp() { return timestamp; }
+    public void setTimestamp(String timestamp) { this.timestamp = timestamp; }
+    public double getLatitude() { return latitude; }
+    public void setLatitude(double latitude) { this.latitude = latitude; }
+    public double getLongitude() { return longitude; }
+    public void setLongitude(double longitude) { this.longitude = longitude; }
+    public double getSpeedKmh() { return speedKmh; }
+    public void setSpeedKmh(double speedKmh) { this.speedKmh = speedKmh; }
+}
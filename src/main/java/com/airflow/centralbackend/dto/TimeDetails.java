@@ -13,6 +13,8 @@ public class TimeDetails {
     Coordinate Parkinglocation;
     String dockId;
     Coordinate Docklocation;
+    String dockWindowStart;
+    String dockWindowEnd;
 
     public String getAssignmentId() {
         return assignmentId;
@@ -109,4 +111,20 @@ public class TimeDetails {
     public void setEstimatedEndTimeFromPickUp(String estimatedEndTimeFromPickUp) {
         EstimatedEndTimeFromPickUp = estimatedEndTimeFromPickUp;
     }
+
+    public String getDockWindowStart() {
+        return dockWindowStart;
+    }
+
+    public void setDockWindowStart(String dockWindowStart) {
+        this.dockWindowStart = dockWindowStart;
+    }
+
+    public String getDockWindowEnd() {
+        return dockWindowEnd;
+    }
+
+    public void setDockWindowEnd(String dockWindowEnd) {
+        this.dockWindowEnd = dockWindowEnd;
+    }
 }
@@ -0,0 +1,97 @@
+package com.airflow.centralbackend.Config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load on the outbound executor in virtual-thread mode: many request threads each
+ * fan out blocking upstream calls, and every call is in flight at the same time,
+ * far past the max size of the platform pool it replaces.
+ */
+class AsyncConfigTests {
+
+    private static final int PLATFORM_MAX = 64;
+    private static final int REQUESTS = 200;
+    private static final int CALLS_PER_REQUEST = 10;
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void virtualThreadsHoldEveryBlockingCallInFlightAtOnce() throws Exception {
+        AsyncConfig config = new AsyncConfig();
+        ReflectionTestUtils.setField(config, "virtualThreads", true);
+        ReflectionTestUtils.setField(config, "corePoolSize", 16);
+        ReflectionTestUtils.setField(config, "maxPoolSize", PLATFORM_MAX);
+        ReflectionTestUtils.setField(config, "queueCapacity", 500);
+        ReflectionTestUtils.setField(config, "virtualConcurrencyLimit", 5000);
+        AsyncTaskExecutor executor = config.outboundExecutor();
+
+        int calls = REQUESTS * CALLS_PER_REQUEST;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peakInFlight = new AtomicInteger();
+        AtomicInteger onCallers = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        // Every call blocks, like a slow upstream, until all of them have started.
+        CountDownLatch allStarted = new CountDownLatch(calls);
+        CountDownLatch upstreamReleased = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(calls);
+
+        List<Thread> requests = new ArrayList<>();
+        for (int r = 0; r < REQUESTS; r++) {
+            Thread request = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int c = 0; c < CALLS_PER_REQUEST; c++) {
+                    executor.execute(() -> {
+                        if (!Thread.currentThread().getName().startsWith("outbound-vt-")) {
+                            onCallers.incrementAndGet();
+                        }
+                        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                        allStarted.countDown();
+                        try {
+                            upstreamReleased.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            inFlight.decrementAndGet();
+                            done.countDown();
+                        }
+                    });
+                }
+            }, "request-" + r);
+            requests.add(request);
+            request.start();
+        }
+
+        start.countDown();
+        // Only a hang guard: with a capped pool the calls past its size would never start.
+        boolean allInFlight = allStarted.await(60, TimeUnit.SECONDS);
+        upstreamReleased.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS), "all outbound calls complete");
+        for (Thread request : requests) {
+            request.join();
+        }
+        ((SimpleAsyncTaskExecutor) executor).close();
+
+        assertTrue(allInFlight, "every call in flight at once");
+        assertEquals(calls, peakInFlight.get());
+        assertTrue(peakInFlight.get() > PLATFORM_MAX, "past the platform pool's " + PLATFORM_MAX + " threads");
+        assertEquals(0, onCallers.get(), "nothing falls back to the calling thread");
+    }
+}
@@ -0,0 +1,151 @@
+package com.airflow.centralbackend.Config;
+
+import com.google.maps.DirectionsApi;
+import com.google.maps.GeoApiContext;
+import com.google.maps.model.TravelMode;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Directions calls against a local stub, comparing a new context per call (the
+ * old calculateDeparture) with the shared context bean: live OkHttp threads,
+ * connections opened upstream and latency.
+ */
+class GeoApiConfigTests {
+
+    private static final int THREADS = 16;
+    private static final int CALLS = 400;
+    private static final String DIRECTIONS_OK = "{\"status\":\"OK\",\"geocoded_waypoints\":[],\"routes\":[]}";
+
+    private HttpServer server;
+    private String baseUrl;
+    // Remote ports seen by the stub: one per TCP connection the clients opened.
+    private final Set<Integer> connections = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void startStub() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/maps/api/directions/json", exchange -> {
+            connections.add(exchange.getRemoteAddress().getPort());
+            byte[] body = DIRECTIONS_OK.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void sharedContextKeepsThreadsAndConnectionsFlat() throws Exception {
+        // The shared context bean, warmed up once. Runs first: per-call contexts' threads outlive their shutdown.
+        GeoApiContext shared = sharedContext();
+        run(() -> shared);
+        connections.clear();
+        int sharedThreadsWarm = okHttpThreads();
+        long[] sharedLatencies = run(() -> shared);
+        int sharedThreads = okHttpThreads();
+        int sharedConnections = connections.size();
+        shared.shutdown();
+
+        // A context per call, never shut down, as calculateDeparture used to do.
+        connections.clear();
+        int threadsBefore = okHttpThreads();
+        List<GeoApiContext> leaked = new CopyOnWriteArrayList<>();
+        long[] perCall = run(() -> {
+            GeoApiContext ctx = new GeoApiContext.Builder().apiKey("AIza-test").baseUrlOverride(baseUrl).build();
+            leaked.add(ctx);
+            return ctx;
+        });
+        int perCallThreads = okHttpThreads() - threadsBefore;
+        int perCallConnections = connections.size();
+        leaked.forEach(GeoApiContext::shutdown);
+
+        System.out.println("Directions, " + CALLS + " calls from " + THREADS + " threads:");
+        System.out.println("  context per call: +" + perCallThreads + " OkHttp threads, " + perCallConnections
+                + " connections, " + summary(perCall));
+        System.out.println("  shared context:   " + sharedThreads + " OkHttp threads in total, " + sharedConnections
+                + " connections, " + summary(sharedLatencies));
+
+        assertTrue(perCallConnections >= CALLS, "every per-call context opens its own connection");
+        assertTrue(sharedConnections < CALLS / 10, "shared pool reuses connections, opened " + sharedConnections);
+        assertTrue(sharedThreads <= THREADS + 2, "shared context threads bounded, got " + sharedThreads);
+        assertTrue(sharedThreads <= sharedThreadsWarm + 2, "a warm shared context barely starts threads");
+        assertTrue(perCallThreads >= CALLS, "per-call contexts leave threads behind, got " + perCallThreads);
+    }
+
+    private GeoApiContext sharedContext() {
+        GeoApiConfig config = new GeoApiConfig();
+        ReflectionTestUtils.setField(config, "googleMapsApiKey", "AIza-test");
+        // High enough not to throttle the run; the production limit is a property.
+        ReflectionTestUtils.setField(config, "queryRateLimit", 10_000);
+        ReflectionTestUtils.setField(config, "connectTimeoutMs", 3000L);
+        ReflectionTestUtils.setField(config, "readTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(config, "maxRetries", 0);
+        ReflectionTestUtils.setField(config, "maxIdleConnections", 10);
+        ReflectionTestUtils.setField(config, "keepAliveSeconds", 300L);
+        ReflectionTestUtils.setField(config, "baseUrl", baseUrl);
+        return config.geoApiContext();
+    }
+
+    // Runs CALLS Directions requests across THREADS threads; returns each call's latency in microseconds.
+    private long[] run(Supplier<GeoApiContext> contexts) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < CALLS; i++) {
+                futures.add(pool.submit(() -> {
+                    long start = System.nanoTime();
+                    DirectionsApi.newRequest(contexts.get())
+                            .mode(TravelMode.DRIVING)
+                            .origin("32.9,-97.0")
+                            .destination("32.89,-97.04")
+                            .await();
+                    return (System.nanoTime() - start) / 1_000;
+                }));
+            }
+            long[] latencies = new long[CALLS];
+            for (int i = 0; i < CALLS; i++) {
+                latencies[i] = futures.get(i).get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(CALLS, latencies.length);
+            return latencies;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static int okHttpThreads() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+                .filter(t -> t.getName().startsWith("OkHttp") || t.getName().contains("RateLimitExecutor"))
+                .count();
+    }
+
+    private static String summary(long[] latenciesMicros) {
+        long[] sorted = latenciesMicros.clone();
+        Arrays.sort(sorted);
+        return "p50 " + sorted[sorted.length / 2] / 1000.0 + " ms, p99 " + sorted[sorted.length * 99 / 100] / 1000.0 + " ms";
+    }
+}
@@ -0,0 +1,54 @@
+package com.airflow.centralbackend.Config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Gzip handling on outbound responses, including the empty bodies of 204s and HEADs.
+ */
+class OutboundClientInterceptorTests {
+
+    private final OutboundClientInterceptor interceptor = new OutboundClientInterceptor(4, Duration.ofSeconds(1));
+
+    @Test
+    void emptyGzipBodyReadsAsEmpty() throws Exception {
+        try (ClientHttpResponse response = call(new byte[0], HttpStatus.NO_CONTENT)) {
+            assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+            assertEquals(0, response.getBody().readAllBytes().length);
+        }
+    }
+
+    @Test
+    void gzipBodyIsDecompressed() throws Exception {
+        byte[] json = "{\"status\":\"OK\"}".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(gzipped)) {
+            out.write(json);
+        }
+        try (ClientHttpResponse response = call(gzipped.toByteArray(), HttpStatus.OK)) {
+            assertArrayEquals(json, response.getBody().readAllBytes());
+            assertEquals(null, response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        }
+    }
+
+    private ClientHttpResponse call(byte[] body, HttpStatus status) throws Exception {
+        MockClientHttpResponse upstream = new MockClientHttpResponse(body, status);
+        upstream.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://upstream.test/x"));
+        return interceptor.intercept(request, new byte[0], (req, b) -> upstream);
+    }
+}
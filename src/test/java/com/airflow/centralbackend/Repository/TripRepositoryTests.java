@@ -0,0 +1,104 @@
+package com.airflow.centralbackend.Repository;
+
+import com.airflow.centralbackend.Model.Driver;
+import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.ParkingSlot;
+import com.airflow.centralbackend.Model.Trip;
+import com.airflow.centralbackend.Model.Truck;
+import com.airflow.centralbackend.dto.ActiveTripSummary;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Query counts for the trip read paths: each should be one select however many
+ * associations or trips it returns.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TripRepositoryTests {
+
+    private static final int TRIPS = 20;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<String> tripIds;
+
+    @BeforeEach
+    void setUp() {
+        tripIds = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = new Trip();
+            trip.setDriver(entityManager.persist(new Driver(null, "Driver " + i, "L" + i, "555-01" + i)));
+            trip.setTruck(entityManager.persist(new Truck(null, "TX-" + i, "Box", "20t")));
+            trip.setReservedParkingSlot(entityManager.persist(new ParkingSlot(null, "G" + i)));
+            trip.setCurrentLocation(new Location(32.9, -97.0));
+            trip.setStartTime(now);
+            trip.setEstimatedArrivalTime(now.plusMinutes(i));
+            // Every other trip is finished and must not show up on the dashboard.
+            trip.setActive(i % 2 == 0);
+            tripIds.add(entityManager.persist(trip).getId());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void findWithAssociationsByIdIsOneSelect() {
+        Trip trip = tripRepository.findWithAssociationsById(tripIds.get(3)).orElseThrow();
+
+        assertTrue(Hibernate.isInitialized(trip.getDriver()));
+        assertTrue(Hibernate.isInitialized(trip.getTruck()));
+        assertTrue(Hibernate.isInitialized(trip.getReservedParkingSlot()));
+        assertEquals("Driver 3", trip.getDriver().getName());
+        assertEquals("TX-3", trip.getTruck().getLicensePlate());
+        assertEquals("G3", trip.getReservedParkingSlot().getGateId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void plainFindByIdLeavesAssociationsUnloaded() {
+        Trip trip = tripRepository.findById(tripIds.get(3)).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(trip.getDriver()));
+        assertFalse(Hibernate.isInitialized(trip.getTruck()));
+        assertFalse(Hibernate.isInitialized(trip.getReservedParkingSlot()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void findActiveTripSummariesIsOneSelect() {
+        List<ActiveTripSummary> summaries = tripRepository.findActiveTripSummaries();
+
+        assertEquals(TRIPS / 2, summaries.size());
+        assertEquals("Driver 0", summaries.get(0).getDriverName());
+        assertEquals("TX-0", summaries.get(0).getTruckPlate());
+        assertEquals("Driver 18", summaries.get(summaries.size() - 1).getDriverName());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,197 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.Assignment;
+import com.airflow.centralbackend.dto.AssignmentsResponse;
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.Manifest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseCreator;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * assign_tasks against a stub upstream: manifests go out in chunks, a failing
+ * chunk is retried on its own, and one that keeps failing is kept for later.
+ */
+class AssignmentDispatchServiceTests {
+
+    private static final String ASSIGN_TASKS = "http://mock.local/mock/dispatch/assign_tasks";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private MockRestServiceServer server;
+    private AssignmentDispatchService dispatchService;
+    private List<Integer> chunkSizes;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+
+        MockTransportationController mockController = new MockTransportationController();
+        ReflectionTestUtils.setField(mockController, "baseUrl", "http://mock.local");
+        ReflectionTestUtils.setField(mockController, "restTemplate", restTemplate);
+        ReflectionTestUtils.setField(mockController, "objectMapper", objectMapper);
+
+        dispatchService = new AssignmentDispatchService();
+        ReflectionTestUtils.setField(dispatchService, "mockController", mockController);
+        // Chunks run one after another here, so the stubbed responses line up in order.
+        ReflectionTestUtils.setField(dispatchService, "outboundExecutor", (Executor) Runnable::run);
+        ReflectionTestUtils.setField(dispatchService, "apiToken", "token");
+        ReflectionTestUtils.setField(dispatchService, "chunkSize", 2);
+        ReflectionTestUtils.setField(dispatchService, "parallelism", 2);
+        ReflectionTestUtils.setField(dispatchService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatchService, "retryBackoffMs", 0L);
+        chunkSizes = new ArrayList<>();
+    }
+
+    @Test
+    void dispatchesInChunksAndRetriesEachChunkOnItsOwn() {
+        List<Manifest> manifests = manifests(5);
+        List<String> keys = ManifestKeys.identityKeys(manifests);
+
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+        // The second chunk fails once, then goes through.
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(withServerError());
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+
+        List<Assignment> assignments = dispatchService.dispatch(manifests, keys);
+
+        server.verify();
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+        assertEquals(5, assignments.size());
+        for (int i = 0; i < 5; i++) {
+            assertEquals("FL" + i, assignments.get(i).getFlight_number());
+            assertEquals(keys.get(i), assignments.get(i).getIdentityKey());
+            assertEquals(ManifestKeys.contentHash(manifests.get(i)), assignments.get(i).getContentHash());
+        }
+        assertTrue(dispatchService.undispatched().isEmpty());
+    }
+
+    @Test
+    void chunkThatKeepsFailingIsKeptUntilADispatchSucceeds() {
+        List<Manifest> manifests = manifests(5);
+        List<String> keys = ManifestKeys.identityKeys(manifests);
+
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+        server.expect(times(3), requestTo(startsWith(ASSIGN_TASKS))).andRespond(withServerError());
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+
+        List<Assignment> assignments = dispatchService.dispatch(manifests, keys);
+
+        server.verify();
+        assertEquals(3, assignments.size());
+        assertEquals(Set.of(keys.get(2), keys.get(3)), dispatchService.undispatched().keySet());
+        assertEquals(1L, dispatchService.getStats().get("failedChunks"));
+
+        // The scheduler's retry sends just the waiting manifests.
+        server.reset();
+        chunkSizes.clear();
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(echo());
+        Map<String, Manifest> waiting = dispatchService.undispatched();
+        List<Assignment> retried = dispatchService.dispatch(
+                new ArrayList<>(waiting.values()), new ArrayList<>(waiting.keySet()));
+
+        server.verify();
+        assertEquals(List.of(2), chunkSizes);
+        assertEquals(Set.of("FL2", "FL3"), retried.stream().map(Assignment::getFlight_number).collect(Collectors.toSet()));
+        assertTrue(dispatchService.undispatched().isEmpty());
+    }
+
+    @Test
+    void chunksNotSentBeforeAnInterruptAreKeptForTheRetry() {
+        List<Manifest> manifests = manifests(5);
+        List<String> keys = ManifestKeys.identityKeys(manifests);
+
+        // The caller is interrupted while the first chunk is out.
+        ResponseCreator echo = echo();
+        server.expect(requestTo(startsWith(ASSIGN_TASKS))).andRespond(request -> {
+            Thread.currentThread().interrupt();
+            return echo.createResponse(request);
+        });
+
+        List<Assignment> assignments;
+        try {
+            assignments = dispatchService.dispatch(manifests, keys);
+        } finally {
+            assertTrue(Thread.interrupted(), "interrupt is preserved");
+        }
+
+        server.verify();
+        assertEquals(2, assignments.size());
+        assertEquals(Set.of(keys.get(2), keys.get(3), keys.get(4)), dispatchService.undispatched().keySet());
+        assertEquals(2L, dispatchService.getStats().get("failedChunks"));
+    }
+
+    // Answers assign_tasks with one assignment per manifest in the request, in order.
+    private ResponseCreator echo() {
+        return (ClientHttpRequest request) -> {
+            List<Manifest> sent = sentManifests(request);
+            chunkSizes.add(sent.size());
+            List<Assignment> assignments = new ArrayList<>();
+            for (Manifest m : sent) {
+                Assignment a = new Assignment();
+                a.setCompany_name(m.getCompany_name());
+                a.setDispatcher_name(m.getDispatcher_name());
+                a.setLocation(m.getLocation());
+                a.setTask_type(m.getTask_type());
+                a.setFlight_number(m.getFlight_number());
+                a.setPickup_time(m.getPickup_time());
+                a.setPriority(m.getPriority());
+                a.setTruck_id("TRUCK-" + m.getFlight_number());
+                assignments.add(a);
+            }
+            AssignmentsResponse body = new AssignmentsResponse();
+            body.setAssignments(assignments);
+            return withSuccess(objectMapper.writeValueAsString(body), MediaType.APPLICATION_JSON).createResponse(request);
+        };
+    }
+
+    private List<Manifest> sentManifests(ClientHttpRequest request) throws IOException {
+        String query = request.getURI().getRawQuery();
+        String encoded = query.substring(query.indexOf("manifests_json=") + "manifests_json=".length());
+        String json = URLDecoder.decode(encoded, StandardCharsets.UTF_8);
+        return objectMapper.readValue(json, new TypeReference<List<Manifest>>() {});
+    }
+
+    private static List<Manifest> manifests(int count) {
+        List<Manifest> manifests = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Manifest m = new Manifest();
+            m.setCompany_name("Acme");
+            m.setDispatcher_name("Dispatch");
+            m.setLocation(new Coordinate(32.9 + i * 0.01, -97.0));
+            m.setTask_type("pickup");
+            m.setFlight_number("FL" + i);
+            m.setPickup_time("09:" + (10 + i));
+            m.setPriority("high");
+            manifests.add(m);
+        }
+        return manifests;
+    }
+}
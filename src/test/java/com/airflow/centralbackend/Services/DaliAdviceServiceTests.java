@@ -0,0 +1,71 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.IntersectionResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A hung DALI call: callers give up after the advice timeout instead of blocking
+ * forever on the shared lookup, and the lookup still completes for later waiters.
+ */
+class DaliAdviceServiceTests {
+
+    private final CountDownLatch upstreamReleased = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+    private ExecutorService pool;
+    private DaliAdviceService dali;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        MockTransportationController upstream = new MockTransportationController() {
+            @Override
+            public IntersectionResponse getDaliIntersection(String token, String truckerId, double lat, double lon, String priority) {
+                calls.incrementAndGet();
+                try {
+                    upstreamReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new IntersectionResponse();
+            }
+        };
+        dali = new DaliAdviceService();
+        ReflectionTestUtils.setField(dali, "mockTransportationController", upstream);
+        ReflectionTestUtils.setField(dali, "outboundExecutor", pool);
+        ReflectionTestUtils.setField(dali, "adviceTimeoutMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamReleased.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void hungLookupTimesOutWithoutFailingTheSharedCall() throws Exception {
+        long start = System.nanoTime();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> dali.getAdvice("truck-1", 32.9, -97.0, "high"));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+        assertTrue(waitedMs < 2000, "waited " + waitedMs + " ms");
+
+        // Same lookup, still in flight: it joins rather than calling again, and gets the answer once DALI replies.
+        CompletableFuture<IntersectionResponse> shared = dali.getAdviceAsync("truck-1", 32.9, -97.0, "high");
+        upstreamReleased.countDown();
+        assertNotNull(shared.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+}
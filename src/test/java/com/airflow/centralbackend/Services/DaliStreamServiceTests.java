@@ -0,0 +1,93 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Assignment;
+import com.airflow.centralbackend.dto.IntersectionResponse;
+import com.airflow.centralbackend.dto.PositionUpdate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Positions streamed over STOMP: only today's assignments are logged and advised;
+ * an id any client makes up leaves nothing behind.
+ */
+class DaliStreamServiceTests {
+
+    private static final String KNOWN = "3f1c2a9e-0000-4000-8000-000000000001";
+
+    private final List<String> logged = new CopyOnWriteArrayList<>();
+    private final AtomicInteger sent = new AtomicInteger();
+    private DaliStreamService stream;
+
+    @BeforeEach
+    void setUp() {
+        Assignment assignment = new Assignment();
+        assignment.setId(KNOWN);
+        assignment.setTruck_id("truck-1");
+
+        stream = new DaliStreamService();
+        ReflectionTestUtils.setField(stream, "schedulerService", new AssignmentSchedulerService() {
+            @Override
+            public Assignment getAssignment(String assignmentId) {
+                return KNOWN.equals(assignmentId) ? assignment : null;
+            }
+        });
+        ReflectionTestUtils.setField(stream, "telemetryLog", new TelemetryLogService() {
+            @Override
+            public void append(String assignmentId, double latitude, double longitude) {
+                logged.add(assignmentId);
+            }
+        });
+        ReflectionTestUtils.setField(stream, "fleetState", new FleetStateService() {
+            @Override
+            public TruckState updatePosition(String truckId, String assignmentId, double latitude, double longitude) {
+                return null;
+            }
+        });
+        ReflectionTestUtils.setField(stream, "daliAdviceService", new DaliAdviceService() {
+            @Override
+            public CompletableFuture<IntersectionResponse> getAdviceAsync(String truckId, double lat, double lon, String priority) {
+                return CompletableFuture.completedFuture(new IntersectionResponse());
+            }
+        });
+        ReflectionTestUtils.setField(stream, "messagingTemplate", new SimpMessagingTemplate((message, timeout) -> {
+            sent.incrementAndGet();
+            return true;
+        }));
+    }
+
+    @Test
+    void unknownAssignmentIsNeitherLoggedNorStreamed() {
+        stream.onPosition("session-1", "made-up-id", position());
+        stream.onPosition("session-1", null, position());
+
+        assertEquals(List.of(), logged);
+        assertEquals(0, sent.get());
+        assertEquals(0, stream.getStats().get("streams"));
+        assertEquals(0, stream.getStats().get("sessions"));
+    }
+
+    @Test
+    void knownAssignmentIsLoggedAndAdvised() {
+        stream.onPosition("session-1", KNOWN, position());
+
+        assertEquals(List.of(KNOWN), logged);
+        assertEquals(1, sent.get());
+        assertEquals(1, stream.getStats().get("streams"));
+    }
+
+    private static PositionUpdate position() {
+        PositionUpdate update = new PositionUpdate();
+        update.setLatitude(32.9);
+        update.setLongitude(-97.04);
+        return update;
+    }
+}
@@ -0,0 +1,124 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Assignment;
+import com.airflow.centralbackend.dto.Coordinate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Background planning with Directions stubbed out: lookups run in parallel up to
+ * the configured limit, shared legs are looked up once, and request-time legs
+ * don't grow the table past its cap.
+ */
+class DeparturePlannerServiceTests {
+
+    private static final ZoneId ZONE = ZoneId.of("America/Chicago");
+    private static final double AIRPORT_LAT = 32.8998;
+    private static final double AIRPORT_LNG = -97.0403;
+    private static final int PARALLELISM = 8;
+    private static final int MAX_LEGS = 25;
+    private static final int LEGS = 20;
+    // 60 minutes before to 240 after the pickup in 30-minute buckets.
+    private static final int BUCKETS_PER_LEG = 11;
+
+    private ExecutorService pool;
+    private DeparturePlannerService planner;
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private CountDownLatch planned;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(32);
+        planned = new CountDownLatch(LEGS * BUCKETS_PER_LEG);
+        planner = new DeparturePlannerService() {
+            @Override
+            public long liveDurationSeconds(double originLat, double originLng, double destLat, double destLng,
+                                            Instant departure) throws Exception {
+                calls.incrementAndGet();
+                peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                    return 1800;
+                } finally {
+                    inFlight.decrementAndGet();
+                    planned.countDown();
+                }
+            }
+        };
+        ReflectionTestUtils.setField(planner, "outboundExecutor", pool);
+        ReflectionTestUtils.setField(planner, "bucketMinutes", 30);
+        ReflectionTestUtils.setField(planner, "windowBeforeMinutes", 60);
+        ReflectionTestUtils.setField(planner, "windowAfterMinutes", 240);
+        ReflectionTestUtils.setField(planner, "cellDegrees", 0.002);
+        ReflectionTestUtils.setField(planner, "parallelism", PARALLELISM);
+        ReflectionTestUtils.setField(planner, "maxLegs", MAX_LEGS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void planRunsLookupsInParallelAndOncePerLegBucket() throws Exception {
+        // Two assignments per pickup cell with the same pickup time: they share every bucket.
+        List<Assignment> assignments = new ArrayList<>();
+        for (int leg = 0; leg < LEGS; leg++) {
+            assignments.add(assignment(leg, "08:00"));
+            assignments.add(assignment(leg, "08:00"));
+        }
+
+        planner.planAsync(assignments, AIRPORT_LAT, AIRPORT_LNG, ZONE);
+
+        assertTrue(planned.await(30, TimeUnit.SECONDS), "all buckets planned");
+        Thread.sleep(50);
+        assertEquals(LEGS * BUCKETS_PER_LEG, calls.get());
+        assertTrue(peakInFlight.get() > 1, "lookups ran in parallel");
+        assertTrue(peakInFlight.get() <= PARALLELISM, "at most " + PARALLELISM + " at once, saw " + peakInFlight.get());
+        assertEquals(LEGS, planner.getStats().get("size"));
+
+        // Covered by the table: no live call.
+        LocalDateTime arrival = LocalDateTime.now(ZONE).toLocalDate().atTime(9, 0);
+        LocalDateTime departure = planner.departureFor(32.7 + 0.01, -97.3, AIRPORT_LAT, AIRPORT_LNG, arrival, ZONE);
+        assertEquals(arrival.minusSeconds(1800), departure);
+        assertEquals(LEGS * BUCKETS_PER_LEG, calls.get());
+    }
+
+    @Test
+    void requestTimeLegsStopBeingCachedAtTheCap() throws Exception {
+        planned = new CountDownLatch(0);
+        LocalDateTime arrival = LocalDateTime.now(ZONE).toLocalDate().atTime(9, 0);
+        // Trucks reporting from 100 different cells.
+        for (int i = 0; i < 100; i++) {
+            planner.departureFor(32.5 + i * 0.01, -97.5, AIRPORT_LAT, AIRPORT_LNG, arrival, ZONE);
+        }
+        assertEquals(MAX_LEGS, planner.getStats().get("size"));
+        assertEquals(100, calls.get());
+
+        // A leg that made it into the table is answered from it next time.
+        planner.departureFor(32.5, -97.5, AIRPORT_LAT, AIRPORT_LNG, arrival, ZONE);
+        assertEquals(100, calls.get());
+    }
+
+    private static Assignment assignment(int leg, String pickupTime) {
+        Assignment a = new Assignment();
+        a.setLocation(new Coordinate(32.7 + leg * 0.01, -97.3));
+        a.setPickup_time(pickupTime);
+        return a;
+    }
+}
@@ -0,0 +1,122 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.util.GeoUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the grid-indexed area and nearest queries against a scan of every truck.
+ */
+class FleetStateServiceTests {
+
+    private static final int TRUCKS = 2000;
+
+    private final Random random = new Random(42);
+    private FleetStateService fleet;
+    private double[][] positions;
+
+    @BeforeEach
+    void setUp() {
+        fleet = new FleetStateService();
+        ReflectionTestUtils.setField(fleet, "cellDegrees", 0.01);
+        ReflectionTestUtils.setField(fleet, "staleAfterMs", 1_800_000L);
+        ReflectionTestUtils.setField(fleet, "maxSearchRings", 50);
+        positions = new double[TRUCKS][];
+        for (int i = 0; i < TRUCKS; i++) {
+            moveTo(i, 32.70 + random.nextDouble() * 0.4, -97.30 + random.nextDouble() * 0.4);
+        }
+        // Move half the fleet again so trucks change cells after being indexed.
+        for (int i = 0; i < TRUCKS; i += 2) {
+            moveTo(i, 32.70 + random.nextDouble() * 0.4, -97.30 + random.nextDouble() * 0.4);
+        }
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        for (int q = 0; q < 200; q++) {
+            double lat = 32.60 + random.nextDouble() * 0.6;
+            double lon = -97.40 + random.nextDouble() * 0.6;
+            int n = 1 + random.nextInt(20);
+
+            List<Double> expected = bruteForceDistances(lat, lon).subList(0, n);
+            List<Double> actual = fleet.nearest(lat, lon, n).stream()
+                    .map(s -> GeoUtils.distanceKm(lat, lon, s.getLatitude(), s.getLongitude()))
+                    .collect(Collectors.toList());
+            assertEquals(expected, actual, "nearest " + n + " to " + lat + "," + lon);
+        }
+    }
+
+    @Test
+    void nearestFarFromFleetFallsBackToEveryTruck() {
+        List<Double> expected = bruteForceDistances(40.0, -90.0).subList(0, 3);
+        List<Double> actual = fleet.nearest(40.0, -90.0, 3).stream()
+                .map(s -> GeoUtils.distanceKm(40.0, -90.0, s.getLatitude(), s.getLongitude()))
+                .collect(Collectors.toList());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void boundingBoxMatchesBruteForce() {
+        for (int q = 0; q < 200; q++) {
+            double minLat = 32.65 + random.nextDouble() * 0.4;
+            double minLon = -97.35 + random.nextDouble() * 0.4;
+            // Mix of small boxes (grid walk) and large ones (full scan).
+            double size = q % 4 == 0 ? 0.5 : random.nextDouble() * 0.05;
+            double maxLat = minLat + size;
+            double maxLon = minLon + size;
+
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < TRUCKS; i++) {
+                double[] p = positions[i];
+                if (p[0] >= minLat && p[0] <= maxLat && p[1] >= minLon && p[1] <= maxLon) {
+                    expected.add(truckId(i));
+                }
+            }
+            List<FleetStateService.TruckState> found = fleet.inBoundingBox(minLat, minLon, maxLat, maxLon);
+            Set<String> actual = found.stream().map(FleetStateService.TruckState::getTruckId).collect(Collectors.toSet());
+            assertEquals(expected, actual);
+            assertEquals(actual.size(), found.size(), "no truck reported twice");
+        }
+    }
+
+    @Test
+    void removedTrucksAreNotReturned() {
+        for (int i = 0; i < TRUCKS; i += 3) {
+            fleet.remove(truckId(i));
+        }
+        fleet.purgeStale();
+        List<FleetStateService.TruckState> all = fleet.inBoundingBox(30, -100, 35, -95);
+        assertEquals(TRUCKS - (TRUCKS + 2) / 3, all.size());
+        assertTrue(all.stream().noneMatch(s -> Integer.parseInt(s.getTruckId().substring(6)) % 3 == 0));
+    }
+
+    private void moveTo(int i, double lat, double lon) {
+        positions[i] = new double[]{lat, lon};
+        fleet.updatePosition(truckId(i), "A" + i, lat, lon);
+    }
+
+    private List<Double> bruteForceDistances(double lat, double lon) {
+        List<Double> distances = new ArrayList<>(TRUCKS);
+        for (double[] p : positions) {
+            distances.add(GeoUtils.distanceKm(lat, lon, p[0], p[1]));
+        }
+        distances.sort(Comparator.naturalOrder());
+        return distances;
+    }
+
+    private static String truckId(int i) {
+        return "TRUCK-" + i;
+    }
+}
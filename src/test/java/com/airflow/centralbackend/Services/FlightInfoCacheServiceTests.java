@@ -0,0 +1,80 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.FlighInfoResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A hung flight info fetch: a cold miss gives up after the load timeout, and the
+ * fetch still fills the cache once it returns.
+ */
+class FlightInfoCacheServiceTests {
+
+    private final CountDownLatch upstreamReleased = new CountDownLatch(1);
+    private final CountDownLatch upstreamReturned = new CountDownLatch(1);
+    private final AtomicInteger calls = new AtomicInteger();
+    private ExecutorService pool;
+    private FlightInfoCacheService flights;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(2);
+        MockTransportationController upstream = new MockTransportationController() {
+            @Override
+            public FlighInfoResponse fetchFlightInfo(String token, String flightNumber) {
+                calls.incrementAndGet();
+                try {
+                    upstreamReleased.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                upstreamReturned.countDown();
+                return new FlighInfoResponse();
+            }
+        };
+        flights = new FlightInfoCacheService();
+        ReflectionTestUtils.setField(flights, "mockController", upstream);
+        ReflectionTestUtils.setField(flights, "outboundExecutor", pool);
+        ReflectionTestUtils.setField(flights, "ttlSeconds", 120L);
+        ReflectionTestUtils.setField(flights, "staleSeconds", 900L);
+        ReflectionTestUtils.setField(flights, "loadTimeoutMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        upstreamReleased.countDown();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void coldMissTimesOutAndTheLateFetchStillFillsTheCache() throws Exception {
+        long start = System.nanoTime();
+        ResponseStatusException e = assertThrows(ResponseStatusException.class, () -> flights.get("token", "AA100"));
+        long waitedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+        assertTrue(waitedMs < 2000, "waited " + waitedMs + " ms");
+
+        upstreamReleased.countDown();
+        assertTrue(upstreamReturned.await(5, TimeUnit.SECONDS));
+        // The cache is filled just after the upstream returns.
+        for (int i = 0; i < 50 && flights.getStats().get("size").equals(0); i++) {
+            Thread.sleep(10);
+        }
+        assertNotNull(flights.get("token", "AA100"));
+        assertEquals(1, calls.get());
+    }
+}
@@ -0,0 +1,148 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.ParkingSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads reserving and releasing slots at once: no slot is ever held by two
+ * callers, nothing is lost, and reservations spread evenly across gates.
+ */
+class ParkingSlotAllocatorTests {
+
+    private static final int GATES = 20;
+    private static final int SLOTS_PER_GATE = 50;
+    private static final int THREADS = 16;
+
+    private ParkingSlotAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        List<ParkingSlot> slots = new ArrayList<>();
+        for (int g = 0; g < GATES; g++) {
+            for (int s = 0; s < SLOTS_PER_GATE; s++) {
+                slots.add(new ParkingSlot("SLOT-" + g + "-" + s, "Gate" + g));
+            }
+        }
+        allocator = new ParkingSlotAllocator();
+        // In memory only: nothing is written back.
+        ReflectionTestUtils.invokeMethod(allocator, "init", slots);
+    }
+
+    @Test
+    void racingForTheLastSlotsGivesEachToExactlyOneCaller() throws Exception {
+        Set<String> taken = ConcurrentHashMap.newKeySet();
+        AtomicInteger duplicates = new AtomicInteger();
+        runConcurrently(() -> {
+            ParkingSlot slot;
+            while ((slot = allocator.reserveAny()) != null) {
+                if (!taken.add(slot.getSlotId())) {
+                    duplicates.incrementAndGet();
+                }
+            }
+        });
+
+        assertEquals(0, duplicates.get());
+        assertEquals(GATES * SLOTS_PER_GATE, taken.size());
+        assertTrue(allocator.getAvailableSlots().isEmpty());
+        assertNull(allocator.reserveAny());
+    }
+
+    @Test
+    void reserveReleaseUnderContentionStaysConsistent() throws Exception {
+        int opsPerThread = 100_000;
+        // Who holds each slot right now; a second holder means a double booking.
+        ConcurrentHashMap<String, Integer> holders = new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, AtomicLong> perGate = new ConcurrentHashMap<>();
+        AtomicInteger doubleBookings = new AtomicInteger();
+        AtomicInteger badReleases = new AtomicInteger();
+        AtomicInteger ids = new AtomicInteger();
+
+        long start = System.nanoTime();
+        runConcurrently(() -> {
+            int me = ids.incrementAndGet();
+            List<ParkingSlot> held = new ArrayList<>();
+            for (int op = 0; op < opsPerThread; op++) {
+                // Each thread holds up to 4 slots and frees the oldest before taking more.
+                if (held.size() == 4) {
+                    ParkingSlot oldest = held.remove(0);
+                    holders.remove(oldest.getSlotId(), me);
+                    if (!allocator.release(oldest.getSlotId())) {
+                        badReleases.incrementAndGet();
+                    }
+                }
+                ParkingSlot slot = allocator.reserveAny();
+                if (slot == null) {
+                    continue;
+                }
+                if (holders.putIfAbsent(slot.getSlotId(), me) != null) {
+                    doubleBookings.incrementAndGet();
+                }
+                perGate.computeIfAbsent(slot.getGateId(), g -> new AtomicLong()).incrementAndGet();
+                held.add(slot);
+            }
+            for (ParkingSlot slot : held) {
+                holders.remove(slot.getSlotId(), me);
+                allocator.release(slot.getSlotId());
+            }
+        });
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        long reservations = perGate.values().stream().mapToLong(AtomicLong::get).sum();
+        long min = perGate.values().stream().mapToLong(AtomicLong::get).min().orElse(0);
+        long max = perGate.values().stream().mapToLong(AtomicLong::get).max().orElse(0);
+        System.out.println("Parking allocator: " + reservations + " reservations from " + THREADS + " threads in "
+                + elapsedMs + " ms (" + reservations * 1000 / elapsedMs + "/s), per gate min " + min + " max " + max);
+
+        assertEquals(0, doubleBookings.get());
+        assertEquals(0, badReleases.get());
+        assertEquals((long) THREADS * opsPerThread, reservations);
+        assertEquals(GATES * SLOTS_PER_GATE, allocator.getAvailableSlots().size());
+        assertEquals(GATES, perGate.size());
+        // Round-robin start gate: no gate gets much more than its share.
+        assertTrue(max < min * 1.2, "per gate min " + min + " max " + max);
+    }
+
+    @Test
+    void reservingATakenSlotByIdFails() {
+        assertEquals("SLOT-3-7", allocator.reserve("SLOT-3-7").getSlotId());
+        assertNull(allocator.reserve("SLOT-3-7"));
+        assertTrue(allocator.release("SLOT-3-7"));
+        assertEquals(false, allocator.release("SLOT-3-7"));
+    }
+
+    private static void runConcurrently(Runnable work) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                work.run();
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+}
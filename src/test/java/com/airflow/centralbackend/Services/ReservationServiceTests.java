@@ -0,0 +1,247 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Controller.MockTransportationController;
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.DockAvailability;
+import com.airflow.centralbackend.dto.DockResponse;
+import com.airflow.centralbackend.dto.ParkingResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Parking and dock reservations against a stubbed upstream: one upstream booking
+ * per assignment however many requests race for it, trucks spread over a
+ * terminal's docks before anyone queues, and the airport's dock wins when it
+ * hands out a different one.
+ */
+class ReservationServiceTests {
+
+    private static final Coordinate DOCK_LOCATION = new Coordinate(32.9051, -97.0365);
+    // Docks per terminal in destinations.json.
+    private static final int DOCKS = 4;
+
+    private final AtomicInteger parkingCalls = new AtomicInteger();
+    private final AtomicInteger dockCalls = new AtomicInteger();
+    // Dock the stub airport hands out instead of the requested one, by requested dock id.
+    private final Map<String, String> overrides = new ConcurrentHashMap<>();
+    // Holds parking calls until released; open unless a test closes it.
+    private volatile CountDownLatch parkingUpstream = new CountDownLatch(0);
+    private ReservationService reservations;
+    private DockSchedulerService docks;
+    private LocalDateTime arrival;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockTransportationController upstream = new MockTransportationController() {
+            @Override
+            public ParkingResponse reserveParking(String token) {
+                awaitUpstream();
+                sleep();
+                return new ParkingResponse("P-" + parkingCalls.incrementAndGet(), DOCK_LOCATION);
+            }
+
+            @Override
+            public DockResponse reserveDock(String token, String terminal, String dockId) {
+                sleep();
+                dockCalls.incrementAndGet();
+                return new DockResponse(overrides.getOrDefault(dockId, dockId), DOCK_LOCATION);
+            }
+        };
+
+        DestinationRegistry registry = new DestinationRegistry();
+        ReflectionTestUtils.setField(registry, "location", new ClassPathResource("destinations.json"));
+        ReflectionTestUtils.setField(registry, "objectMapper", new ObjectMapper());
+        registry.load();
+
+        docks = new DockSchedulerService();
+        ReflectionTestUtils.setField(docks, "destinationRegistry", registry);
+        ReflectionTestUtils.setField(docks, "slotMinutes", 15);
+        ReflectionTestUtils.setField(docks, "dwellMinutes", 45);
+        docks.init();
+
+        reservations = new ReservationService();
+        ReflectionTestUtils.setField(reservations, "mockController", upstream);
+        ReflectionTestUtils.setField(reservations, "dockScheduler", docks);
+        ReflectionTestUtils.setField(reservations, "apiToken", "token");
+        ReflectionTestUtils.setField(reservations, "waitTimeoutMs", 5000L);
+
+        arrival = LocalDateTime.now(ZoneId.of("America/Chicago")).plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @Test
+    void concurrentRequestsShareOneUpstreamReservation() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<ReservationService.Reservation>> results = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            for (int i = 0; i < 32; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return reservations.reserve("assignment-1", "a", arrival);
+                }));
+            }
+            start.countDown();
+            ReservationService.Reservation first = results.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<ReservationService.Reservation> result : results) {
+                ReservationService.Reservation r = result.get(10, TimeUnit.SECONDS);
+                assertSame(first.getParking(), r.getParking());
+                assertSame(first.getDock(), r.getDock());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(1, parkingCalls.get());
+        assertEquals(1, dockCalls.get());
+        assertEquals("A-1", docks.getBooking("assignment-1").getDockId());
+        assertSame(DOCK_LOCATION, docks.getBooking("assignment-1").getLocation());
+    }
+
+    @Test
+    void trucksSpreadOverTheTerminalsDocksBeforeQueueing() {
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < DOCKS; i++) {
+            DockSchedulerService.DockBooking booking = reservations.reserve("assignment-" + i, "a", arrival).getDock();
+            assertEquals(arrival, booking.getStart(), "a free dock means no wait");
+            used.add(booking.getDockId());
+        }
+        assertEquals(Set.of("A-1", "A-2", "A-3", "A-4"), used);
+
+        // Every dock is busy: the next truck takes the first one to free up.
+        DockSchedulerService.DockBooking queued = reservations.reserve("assignment-late", "a", arrival.plusMinutes(10)).getDock();
+        assertEquals(arrival.plusMinutes(45), queued.getStart());
+        assertEquals(DOCKS + 1, dockCalls.get());
+
+        // Repeated with an arrival inside the same slot: the booking stays put and nothing is reserved again.
+        assertSame(queued, reservations.reserve("assignment-late", "a", arrival.plusMinutes(12)).getDock());
+        assertEquals(DOCKS + 1, dockCalls.get());
+
+        List<DockAvailability> availability = docks.availability("a", arrival, arrival.plusHours(2));
+        assertEquals(DOCKS, availability.size());
+        DockAvailability a1 = availability.get(0);
+        assertEquals(queued.getDockId(), a1.getDockId());
+        assertEquals(queued.getEnd().toString(), a1.getFreeWindows().get(0).getStart());
+    }
+
+    @Test
+    void terminalChangeReservesANewDockAndReleaseFreesEverything() {
+        reservations.reserve("assignment-1", "a", arrival);
+        DockSchedulerService.DockBooking moved = reservations.reserve("assignment-1", "b", arrival).getDock();
+
+        assertEquals(1, parkingCalls.get());
+        assertEquals(2, dockCalls.get());
+        assertEquals("B-1", moved.getDockId());
+        assertEquals(1, reservations.getStats().get("docksHeld"));
+        // The old terminal's dock is free again.
+        assertEquals("A-1", reservations.reserve("assignment-2", "a", arrival).getDock().getDockId());
+
+        reservations.release("assignment-1");
+        assertEquals(1, reservations.getStats().get("docksHeld"));
+        assertNull(docks.getBooking("assignment-1"));
+        reservations.reserve("assignment-1", "b", arrival);
+        assertEquals(3, parkingCalls.get());
+        assertEquals(4, dockCalls.get());
+    }
+
+    @Test
+    void airportsDockWinsWhenItDiffersFromThePick() {
+        overrides.put("A-1", "A-3");
+
+        DockSchedulerService.DockBooking booking = reservations.reserve("assignment-1", "a", arrival).getDock();
+
+        assertEquals("A-3", booking.getDockId());
+        assertEquals(arrival, booking.getStart());
+        assertSame(booking, reservations.reserve("assignment-1", "a", arrival).getDock());
+        assertEquals(1, dockCalls.get());
+        // A-1 was never held, so the next truck gets it.
+        overrides.clear();
+        assertEquals("A-1", reservations.reserve("assignment-2", "a", arrival).getDock().getDockId());
+    }
+
+    @Test
+    void assignmentsSwappingTerminalsConcurrentlyDontDeadlock() throws Exception {
+        int rounds = 2_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (String[] route : new String[][]{{"x", "a", "b"}, {"y", "b", "a"}}) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < rounds; i++) {
+                    docks.assign(route[0], route[1 + i % 2], arrival);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join(30_000);
+            assertFalse(thread.isAlive(), "scheduler deadlocked");
+        }
+        assertNotNull(docks.getBooking("x"));
+        assertNotNull(docks.getBooking("y"));
+    }
+
+    @Test
+    void waitingOnASlowReservationTimesOutWithoutCancellingIt() throws Exception {
+        parkingUpstream = new CountDownLatch(1);
+        ReflectionTestUtils.setField(reservations, "waitTimeoutMs", 200L);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            // The first request makes the upstream call and is stuck in it.
+            Future<ReservationService.Reservation> first = pool.submit(() -> reservations.reserve("assignment-1", "a", arrival));
+            while (((Map<?, ?>) ReflectionTestUtils.getField(reservations, "parking")).isEmpty()) {
+                Thread.sleep(5);
+            }
+
+            ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                    () -> reservations.reserve("assignment-1", "a", arrival));
+            assertEquals(HttpStatus.GATEWAY_TIMEOUT, e.getStatusCode());
+
+            parkingUpstream.countDown();
+            ReservationService.Reservation booked = first.get(10, TimeUnit.SECONDS);
+            assertSame(booked.getParking(), reservations.reserve("assignment-1", "a", arrival).getParking());
+            assertEquals(1, parkingCalls.get());
+        } finally {
+            parkingUpstream.countDown();
+            pool.shutdownNow();
+        }
+    }
+
+    private void awaitUpstream() {
+        try {
+            parkingUpstream.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(20);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
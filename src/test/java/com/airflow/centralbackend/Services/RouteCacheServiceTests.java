@@ -0,0 +1,68 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.Coordinate;
+import com.airflow.centralbackend.dto.Route;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * A full route cache drops the least recently used route on each put.
+ */
+class RouteCacheServiceTests {
+
+    private static final int MAX_ENTRIES = 100;
+    private static final double DEST_LAT = 32.8998;
+    private static final double DEST_LON = -97.0403;
+
+    private RouteCacheService cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RouteCacheService();
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 600L);
+        ReflectionTestUtils.setField(cache, "maxEntries", MAX_ENTRIES);
+        ReflectionTestUtils.setField(cache, "gridDegrees", 0.005);
+    }
+
+    @Test
+    void fullCacheEvictsLeastRecentlyUsed() {
+        for (int i = 0; i < MAX_ENTRIES; i++) {
+            cache.put(origin(i), DEST_LAT, DEST_LON, route());
+        }
+        // Reading the oldest route makes it the most recently used.
+        assertNotNull(cache.get(origin(0), DEST_LAT, DEST_LON));
+
+        cache.put(origin(MAX_ENTRIES), DEST_LAT, DEST_LON, route());
+
+        assertEquals(MAX_ENTRIES, cache.getStats().get("size"));
+        assertEquals(1L, cache.getStats().get("evictions"));
+        assertNotNull(cache.get(origin(0), DEST_LAT, DEST_LON));
+        assertNull(cache.get(origin(1), DEST_LAT, DEST_LON));
+        assertNotNull(cache.get(origin(MAX_ENTRIES), DEST_LAT, DEST_LON));
+    }
+
+    @Test
+    void expiredRouteIsAMiss() {
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 0L);
+        cache.put(origin(0), DEST_LAT, DEST_LON, route());
+
+        assertNull(cache.get(origin(0), DEST_LAT, DEST_LON));
+        assertEquals(0, cache.getStats().get("size"));
+    }
+
+    // One origin per grid cell.
+    private static Coordinate origin(int i) {
+        return new Coordinate(32.5 + i * 0.01, -97.3);
+    }
+
+    private static Route route() {
+        return new Route(List.of(), 12.5, 20);
+    }
+}
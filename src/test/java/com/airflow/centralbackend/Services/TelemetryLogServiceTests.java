@@ -0,0 +1,187 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.dto.TelemetryPoint;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Concurrent appends across segment rolls, reopening after a restart, resuming
+ * a segment whose written slots have gaps, and indexed reads through the bounded
+ * cache of older segments.
+ */
+class TelemetryLogServiceTests {
+
+    private static final int SEGMENT_RECORDS = 1000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void concurrentWritersAcrossSegmentsAndReopen() throws Exception {
+        int writers = 8;
+        int pointsPerWriter = 600;
+        List<String> assignments = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            assignments.add(UUID.randomUUID().toString());
+        }
+
+        TelemetryLogService log = open();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int w = 0; w < writers; w++) {
+            String assignmentId = assignments.get(w);
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < pointsPerWriter; i++) {
+                    log.append(assignmentId, latitudeFor(i), -97.0);
+                }
+            });
+            threads.add(t);
+            t.start();
+        }
+        start.countDown();
+        for (Thread t : threads) {
+            t.join();
+        }
+        // 4,800 points at 1,000 per segment.
+        assertEquals(5, segmentCount());
+        for (String assignmentId : assignments) {
+            assertInOrder(log.scan(assignmentId, hourAgo(), hourAhead()), pointsPerWriter);
+        }
+        log.close();
+
+        // A restart resumes the last segment; earlier points are still there and new ones follow them.
+        TelemetryLogService reopened = open();
+        for (String assignmentId : assignments) {
+            for (int i = pointsPerWriter; i < pointsPerWriter + 50; i++) {
+                reopened.append(assignmentId, latitudeFor(i), -97.0);
+            }
+        }
+        for (String assignmentId : assignments) {
+            assertInOrder(reopened.scan(assignmentId, hourAgo(), hourAhead()), pointsPerWriter + 50);
+        }
+        reopened.close();
+    }
+
+    @Test
+    void resumeAfterGapDoesNotOverwriteRecords() throws Exception {
+        String assignmentId = UUID.randomUUID().toString();
+        TelemetryLogService log = open();
+        for (int i = 0; i < 750; i++) {
+            log.append(assignmentId, latitudeFor(i), -97.0);
+        }
+        log.close();
+
+        // A writer that claimed slot 500 but crashed before finishing it.
+        Path segment = onlySegment();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(Long.BYTES), 500L * 40 + 16);
+        }
+
+        TelemetryLogService reopened = open();
+        reopened.append(assignmentId, latitudeFor(750), -97.0);
+        List<TelemetryPoint> points = reopened.scan(assignmentId, hourAgo(), hourAhead());
+        assertEquals(750, points.size());
+        assertEquals(latitudeFor(499), points.get(499).getLatitude(), 1e-6);
+        assertEquals(latitudeFor(501), points.get(500).getLatitude(), 1e-6);
+        assertEquals(latitudeFor(750), points.get(749).getLatitude(), 1e-6);
+        reopened.close();
+    }
+
+    @Test
+    void indexedReadsThroughABoundedSegmentCache() throws Exception {
+        List<String> assignments = new ArrayList<>();
+        for (int a = 0; a < 50; a++) {
+            assignments.add(UUID.randomUUID().toString());
+        }
+        TelemetryLogService log = open();
+        ReflectionTestUtils.setField(log, "cachedSegments", 2);
+        // Interleaved: every segment holds records of every assignment.
+        for (int i = 0; i < 100; i++) {
+            for (String assignmentId : assignments) {
+                log.append(assignmentId, latitudeFor(i), -97.0);
+            }
+        }
+        assertEquals(5, segmentCount());
+        log.close();
+
+        // After a restart the older segments come from disk; two passes go through cache misses and hits.
+        TelemetryLogService reopened = open();
+        ReflectionTestUtils.setField(reopened, "cachedSegments", 2);
+        for (int pass = 0; pass < 2; pass++) {
+            for (String assignmentId : assignments) {
+                assertInOrder(reopened.scan(assignmentId, hourAgo(), hourAhead()), 100);
+            }
+        }
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(reopened, "sealed")).size() <= 2);
+        assertEquals(0, reopened.scan(UUID.randomUUID().toString(), hourAgo(), hourAhead()).size());
+        reopened.close();
+    }
+
+    private TelemetryLogService open() {
+        TelemetryLogService log = new TelemetryLogService();
+        ReflectionTestUtils.setField(log, "enabled", true);
+        ReflectionTestUtils.setField(log, "directory", dir.toString());
+        ReflectionTestUtils.setField(log, "segmentRecords", SEGMENT_RECORDS);
+        ReflectionTestUtils.setField(log, "retentionDays", 14);
+        ReflectionTestUtils.setField(log, "cachedSegments", 16);
+        log.open();
+        return log;
+    }
+
+    // Each writer's points must all be there, in the order that writer appended them.
+    private static void assertInOrder(List<TelemetryPoint> points, int expected) {
+        assertEquals(expected, points.size());
+        for (int i = 0; i < expected; i++) {
+            assertEquals(latitudeFor(i), points.get(i).getLatitude(), 1e-6);
+        }
+    }
+
+    private static double latitudeFor(int i) {
+        return 32.0 + i * 1e-5;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private Path onlySegment() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> all = files.toList();
+            assertTrue(all.size() == 1);
+            return all.get(0);
+        }
+    }
+
+    private static Instant hourAgo() {
+        return Instant.now().minusSeconds(3600);
+    }
+
+    private static Instant hourAhead() {
+        return Instant.now().plusSeconds(3600);
+    }
+}
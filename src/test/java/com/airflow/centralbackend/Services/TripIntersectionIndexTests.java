@@ -0,0 +1,83 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.Intersection;
+import com.airflow.centralbackend.Model.Location;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Retained heap per cached intersection at 10k active trips: the packed index
+ * against the queue of Intersection objects the cache used to hold.
+ */
+class TripIntersectionIndexTests {
+
+    private static final int TRIPS = 10_000;
+    private static final int INTERSECTIONS_PER_TRIP = 10;
+
+    @Test
+    void packedIndexRetainsAboutHalfTheObjectQueue() {
+        List<List<Intersection>> routes = routes();
+        int points = TRIPS * INTERSECTIONS_PER_TRIP;
+
+        long base = usedHeap();
+        ConcurrentHashMap<String, Queue<Intersection>> queues = new ConcurrentHashMap<>();
+        for (int t = 0; t < TRIPS; t++) {
+            queues.put("trip-" + t, new ConcurrentLinkedQueue<>(copy(routes.get(t))));
+        }
+        long queueBytes = usedHeap() - base;
+        assertEquals(TRIPS, queues.size());
+        queues = null;
+
+        base = usedHeap();
+        ConcurrentHashMap<String, TripIntersectionIndex> indexes = new ConcurrentHashMap<>();
+        for (int t = 0; t < TRIPS; t++) {
+            indexes.put("trip-" + t, new TripIntersectionIndex(routes.get(t)));
+        }
+        long indexBytes = usedHeap() - base;
+        assertEquals(INTERSECTIONS_PER_TRIP, indexes.get("trip-0").size());
+
+        System.out.println("Intersection cache, " + TRIPS + " trips x " + INTERSECTIONS_PER_TRIP + ": queue of objects "
+                + queueBytes / points + " bytes/intersection (" + queueBytes / 1_048_576 + " MB), packed index "
+                + indexBytes / points + " bytes/intersection (" + indexBytes / 1_048_576 + " MB)");
+        // At 10 points a trip the index's per-trip arrays are a large share, so expect about half, not a tenth.
+        assertTrue(indexBytes * 10 < queueBytes * 6, "packed " + indexBytes + " vs objects " + queueBytes);
+    }
+
+    private static List<List<Intersection>> routes() {
+        List<List<Intersection>> routes = new ArrayList<>(TRIPS);
+        for (int t = 0; t < TRIPS; t++) {
+            List<Intersection> route = new ArrayList<>(INTERSECTIONS_PER_TRIP);
+            for (int i = 0; i < INTERSECTIONS_PER_TRIP; i++) {
+                route.add(new Intersection(null, i, new Location(32.7 + t * 1e-4 + i * 3e-3, -97.1 + i * 2e-3)));
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    // The old cache kept the caller's objects; fresh copies keep the shared input out of the measurement.
+    private static List<Intersection> copy(List<Intersection> route) {
+        List<Intersection> copy = new ArrayList<>(route.size());
+        for (Intersection inter : route) {
+            Location loc = inter.getLocation();
+            copy.add(new Intersection(null, inter.getSequenceNumber(), new Location(loc.getLatitude(), loc.getLongitude())));
+        }
+        return copy;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
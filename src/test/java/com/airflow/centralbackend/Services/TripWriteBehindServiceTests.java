@@ -0,0 +1,157 @@
+package com.airflow.centralbackend.Services;
+
+import com.airflow.centralbackend.Model.Location;
+import com.airflow.centralbackend.Model.Trip;
+import com.airflow.centralbackend.Repository.TripRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Write-behind flushes against an embedded H2 database: how many statements a
+ * flush takes compared with saving each update on its own, and what happens when
+ * the database is down and the pending map fills up.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+// Flushes run their own transactions, as they do in the app.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TripWriteBehindServiceTests {
+
+    private static final int TRIPS = 500;
+    private static final int UPDATES_PER_TRIP = 4;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private TripRepository tripRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private List<String> tripIds;
+
+    @BeforeEach
+    void setUp() {
+        tripRepository.deleteAll();
+        List<Trip> trips = new ArrayList<>();
+        for (int i = 0; i < TRIPS; i++) {
+            Trip trip = new Trip();
+            trip.setCurrentLocation(new Location(32.9, -97.0));
+            trips.add(trip);
+        }
+        tripIds = tripRepository.saveAll(trips).stream().map(Trip::getId).toList();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void flushWritesCoalescedUpdatesInJdbcBatches() {
+        TripWriteBehindService writeBehind = writeBehind(new TransactionTemplate(transactionManager), 10_000);
+
+        long start = System.nanoTime();
+        for (int round = 0; round < UPDATES_PER_TRIP; round++) {
+            for (String tripId : tripIds) {
+                assertTrue(writeBehind.updateLocation(tripId, new Location(33.0 + round * 0.001, -97.0), null));
+            }
+        }
+        assertEquals(TRIPS, writeBehind.pendingCount(), "updates coalesce per trip");
+        writeBehind.flush();
+        long writeBehindMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(0, writeBehind.pendingCount());
+        assertEquals(TRIPS, statistics.getEntityUpdateCount());
+        // One select for the whole batch plus one prepared UPDATE per JDBC batch.
+        long writeBehindStatements = statistics.getPrepareStatementCount();
+        assertTrue(writeBehindStatements <= 1 + TRIPS / BATCH_SIZE,
+                "expected batched updates, got " + writeBehindStatements + " statements");
+
+        // The same updates saved one at a time, as before write-behind.
+        statistics.clear();
+        start = System.nanoTime();
+        for (int round = 0; round < UPDATES_PER_TRIP; round++) {
+            for (String tripId : tripIds) {
+                Trip trip = tripRepository.findById(tripId).orElseThrow();
+                trip.setCurrentLocation(new Location(33.0 + round * 0.001, -97.0));
+                tripRepository.save(trip);
+            }
+        }
+        long directMs = (System.nanoTime() - start) / 1_000_000;
+        long directStatements = statistics.getPrepareStatementCount();
+        assertEquals((long) TRIPS * UPDATES_PER_TRIP, statistics.getEntityUpdateCount());
+
+        System.out.println("Trip updates (" + TRIPS + " trips x " + UPDATES_PER_TRIP + "): write-behind "
+                + writeBehindStatements + " statements in " + writeBehindMs + " ms, one by one "
+                + directStatements + " statements in " + directMs + " ms");
+        assertTrue(writeBehindStatements * 10 < directStatements);
+        assertEquals(33.003, tripRepository.findById(tripIds.get(0)).orElseThrow().getCurrentLocation().getLatitude(), 1e-9);
+    }
+
+    @Test
+    void rejectsNewTripsWhenFullAndTheDatabaseIsDown() {
+        AtomicInteger flushAttempts = new AtomicInteger();
+        TransactionTemplate failing = new TransactionTemplate(transactionManager) {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                flushAttempts.incrementAndGet();
+                throw new CannotCreateTransactionException("database down");
+            }
+        };
+        TripWriteBehindService writeBehind = writeBehind(failing, 10);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(writeBehind.updateLocation(tripIds.get(i), new Location(33.0, -97.0), null));
+        }
+
+        // Full: the caller tries one flush, it fails, and the update is rejected.
+        assertFalse(writeBehind.updateLocation(tripIds.get(10), new Location(33.0, -97.0), null));
+        assertEquals(1, flushAttempts.get());
+        assertEquals(10, writeBehind.pendingCount());
+
+        // Right after a failed flush, further new trips are rejected without another attempt.
+        assertFalse(writeBehind.updateLocation(tripIds.get(11), new Location(33.0, -97.0), null));
+        assertEquals(1, flushAttempts.get());
+        assertEquals(2, writeBehind.rejectedCount());
+
+        // Trips already pending still coalesce.
+        assertTrue(writeBehind.updateLocation(tripIds.get(0), new Location(33.1, -97.0), null));
+        assertEquals(10, writeBehind.pendingCount());
+    }
+
+    private TripWriteBehindService writeBehind(TransactionTemplate transactionTemplate, int maxPending) {
+        TripWriteBehindService writeBehind = new TripWriteBehindService();
+        ReflectionTestUtils.setField(writeBehind, "tripRepository", tripRepository);
+        ReflectionTestUtils.setField(writeBehind, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(writeBehind, "outboundExecutor", (Executor) Runnable::run);
+        // Only explicit flushes in these tests.
+        ReflectionTestUtils.setField(writeBehind, "flushThreshold", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(writeBehind, "maxPending", maxPending);
+        ReflectionTestUtils.setField(writeBehind, "flushIntervalMs", 60_000L);
+        return writeBehind;
+    }
+}